@@ -0,0 +1,94 @@
+package bench;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import utils.AuthRetryFilter;
+import utils.EmbeddedBookstore;
+import utils.TokenManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side auth overhead: {@link AuthRetryFilter#filter} around a canned 200 response, and
+ * {@link TokenManager#getToken()} with a warm cache under 1–64 threads. Tokens come from the
+ * {@link EmbeddedBookstore}, so no API is needed and no network time is included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+        @Setup
+        public void setUp() {
+            System.setProperty("api.base", "embedded");
+            TokenManager.prewarm();
+        }
+    }
+
+    /** A request spec and filter chain per thread, as each scenario thread has its own. */
+    @State(Scope.Thread)
+    public static class Chain {
+        final AuthRetryFilter filter = new AuthRetryFilter();
+        final Response ok = new ResponseBuilder().setStatusCode(200).setStatusLine("HTTP/1.1 200").setBody("{}").build();
+        final FilterContext context = new FilterContext() {
+            @Override public void setValue(String name, Object value) {}
+            @Override public <T> T getValue(String name) { return null; }
+            @Override public boolean hasValue(String name) { return false; }
+            @Override public boolean hasValue(String name, Object value) { return false; }
+            @Override public Response send(RequestSender requestSender) { return ok; }
+            @Override public Response next(FilterableRequestSpecification req, FilterableResponseSpecification res) { return ok; }
+        };
+        FilterableRequestSpecification request;
+        FilterableResponseSpecification response;
+
+        @Setup(Level.Iteration)
+        public void setUp(Tokens tokens) {
+            request = (FilterableRequestSpecification) RestAssured.given();
+            response = (FilterableResponseSpecification) RestAssured.expect();
+        }
+    }
+
+    @Benchmark
+    public Response authRetryFilter(Tokens tokens, Chain chain) {
+        return chain.filter.filter(chain.request, chain.response, chain.context);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String getToken_1thread(Tokens tokens) {
+        return TokenManager.getToken();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getToken_4threads(Tokens tokens) {
+        return TokenManager.getToken();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String getToken_16threads(Tokens tokens) {
+        return TokenManager.getToken();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String getToken_64threads(Tokens tokens) {
+        return TokenManager.getToken();
+    }
+}
@@ -0,0 +1,63 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import utils.BookDataGenerator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** Cost of one random book, map and JSON forms, against the original Random + UUID generator. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookDataGeneratorBenchmark {
+
+    private final BookDataGenerator generator = BookDataGenerator.shared();
+
+    @Benchmark
+    public Map<String, Object> generateRandomBook() {
+        return BookDataGenerator.generateRandomBook();
+    }
+
+    @Benchmark
+    public String nextBookJson() {
+        return generator.nextBookJson();
+    }
+
+    @Benchmark
+    public Map<String, Object> legacyRandomUuid() {
+        return legacy();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Map<String, Object> generateRandomBook_8threads() {
+        return BookDataGenerator.generateRandomBook();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Map<String, Object> legacyRandomUuid_8threads() {
+        return legacy();
+    }
+
+    /** The generator as it was before it became seedable: new Random and three UUIDs per book. */
+    private static Map<String, Object> legacy() {
+        Random random = new Random();
+        Map<String, Object> book = new HashMap<>();
+        book.put("name", "Book-" + UUID.randomUUID().toString().substring(0, 8));
+        book.put("author", "Author-" + UUID.randomUUID().toString().substring(0, 6));
+        book.put("published_year", 1950 + random.nextInt(74));
+        book.put("book_summary", "This is a summary for " + UUID.randomUUID().toString().substring(0, 5));
+        return book;
+    }
+}
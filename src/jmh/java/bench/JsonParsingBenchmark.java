@@ -0,0 +1,77 @@
+package bench;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import utils.BookDataGenerator;
+import utils.ConfigReader;
+import utils.JsonArrayScanner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** {@code GET /books/} assertions on a large listing: RestAssured jsonPath vs {@link JsonArrayScanner}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonParsingBenchmark {
+
+    private static final List<String> FIELDS = List.of("name", "author", "published_year");
+
+    @Param({"100", "10000"})
+    public int books;
+
+    private byte[] json;
+    // jsonPath() parses the body afresh on every call, so one Response can be reused
+    private Response response;
+
+    @Setup
+    public void setUp() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BookDataGenerator(42, ConfigReader.defaults()).writeJsonArray(out, books);
+        json = out.toByteArray();
+        response = new ResponseBuilder().setStatusCode(200).setStatusLine("HTTP/1.1 200")
+                .setContentType("application/json").setBody(json).build();
+    }
+
+    @Benchmark
+    public int jsonPathCount() {
+        return response.jsonPath().getList("$").size();
+    }
+
+    @Benchmark
+    public long streamingCountAtLeastOne() throws IOException {
+        return JsonArrayScanner.countAtLeast(new ByteArrayInputStream(json), 1);
+    }
+
+    @Benchmark
+    public int jsonPathValidateAll() {
+        List<Map<String, Object>> all = response.jsonPath().getList("$");
+        int invalid = 0;
+        for (Map<String, Object> book : all) {
+            for (String field : FIELDS) {
+                if (book.get(field) == null) {
+                    invalid++;
+                    break;
+                }
+            }
+        }
+        return invalid;
+    }
+
+    @Benchmark
+    public long streamingValidateAll() throws IOException {
+        return JsonArrayScanner.validate(new ByteArrayInputStream(json), FIELDS, 10).invalid();
+    }
+}
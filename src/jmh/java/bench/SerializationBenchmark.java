@@ -0,0 +1,66 @@
+package bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pojo.LoginRequest;
+import utils.BookDataGenerator;
+import utils.Json;
+import utils.TestPayloads;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Payload preparation: shared vs per-call ObjectMapper, cached vs disk-read testData files. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+
+    private Map<String, Object> book;
+    private LoginRequest login;
+
+    @Setup
+    public void setUp() {
+        book = BookDataGenerator.shared().nextBook();
+        login = new LoginRequest(1, "bench@example.com", "secret");
+        TestPayloads.preload();
+    }
+
+    @Benchmark
+    public String bookSharedMapper() {
+        return Json.write(book);
+    }
+
+    @Benchmark
+    public String bookNewMapperPerCall() throws Exception {
+        return new ObjectMapper().writeValueAsString(book);
+    }
+
+    @Benchmark
+    public String loginPojoSharedMapper() {
+        return Json.write(login);
+    }
+
+    @Benchmark
+    public String loginPojoNewMapperPerCall() throws Exception {
+        return new ObjectMapper().writeValueAsString(login);
+    }
+
+    @Benchmark
+    public String payloadCached() {
+        return TestPayloads.text("createBook.json");
+    }
+
+    @Benchmark
+    public String payloadFromDisk() throws Exception {
+        return new String(Files.readAllBytes(Path.of("src/test/resources/testData/createBook.json")));
+    }
+}
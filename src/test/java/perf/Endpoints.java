@@ -0,0 +1,38 @@
+package perf;
+
+import java.util.regex.Pattern;
+
+/** Helpers for turning concrete request paths into stable endpoint keys. */
+public final class Endpoints {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private Endpoints() {}
+
+    /**
+     * Collapses numeric path segments so {@code GET /books/12} and {@code GET /books/99} share a key.
+     *
+     * @param method HTTP method
+     * @param path   request path or absolute URL (query string is dropped)
+     * @return key such as {@code GET /books/{id}}
+     */
+    public static String template(String method, String path) {
+        String p = path;
+        int scheme = p.indexOf("://");
+        if (scheme >= 0) {
+            int slash = p.indexOf('/', scheme + 3);
+            p = slash >= 0 ? p.substring(slash) : "/";
+        }
+        int query = p.indexOf('?');
+        if (query >= 0) {
+            p = p.substring(0, query);
+        }
+        return method.toUpperCase() + " " + ID_SEGMENT.matcher(p).replaceAll("/{id}");
+    }
+
+    /** Same as {@link #template(String, String)} for an already-joined "METHOD /path" string. */
+    public static String template(String methodAndPath) {
+        int space = methodAndPath.indexOf(' ');
+        return space < 0 ? methodAndPath : template(methodAndPath.substring(0, space), methodAndPath.substring(space + 1));
+    }
+}
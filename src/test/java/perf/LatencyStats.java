@@ -0,0 +1,102 @@
+package perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency and error bookkeeping, one HdrHistogram per operation/endpoint.
+ * Latencies are recorded in nanoseconds and reported in milliseconds.
+ */
+public final class LatencyStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Histogram plus request/error counters for a single key. */
+    public static final class Entry {
+        private final Histogram histogram = new ConcurrentHistogram(1, MAX_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+
+        public long count() { return histogram.getTotalCount(); }
+        public long errors() { return errors.sum(); }
+        public Histogram histogram() { return histogram; }
+
+        public double errorRate() {
+            long count = count();
+            return count == 0 ? 0.0 : (double) errors() / count;
+        }
+
+        /** Percentile in milliseconds. */
+        public double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+        }
+
+        public double maxMillis() {
+            return histogram.getMaxValue() / 1_000_000.0;
+        }
+
+        public double meanMillis() {
+            return histogram.getMean() / 1_000_000.0;
+        }
+    }
+
+    public void record(String key, long latencyNanos, boolean error) {
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        entry.histogram.recordValue(Math.max(1, Math.min(latencyNanos, MAX_TRACKABLE_NANOS)));
+        if (error) {
+            entry.errors.increment();
+        }
+    }
+
+    /** Adds a histogram recorded elsewhere (e.g. another shard) to the key's entry. */
+    public void add(String key, Histogram histogram, long errors) {
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        entry.histogram.add(histogram);
+        entry.errors.add(errors);
+    }
+
+    /** Entries sorted by key, for stable report output. */
+    public Map<String, Entry> entries() {
+        return new TreeMap<>(entries);
+    }
+
+    public long totalCount() {
+        return entries.values().stream().mapToLong(Entry::count).sum();
+    }
+
+    public long totalErrors() {
+        return entries.values().stream().mapToLong(Entry::errors).sum();
+    }
+
+    public double errorRate() {
+        long count = totalCount();
+        return count == 0 ? 0.0 : (double) totalErrors() / count;
+    }
+
+    /**
+     * Renders a fixed-width summary table.
+     *
+     * @param elapsedSeconds wall-clock duration used to derive throughput
+     */
+    public String formatTable(double elapsedSeconds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-55s %8s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "req/s", "err%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        entries().forEach((key, e) -> sb.append(String.format("%-55s %8d %9.1f %7.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                key, e.count(), e.count() / elapsedSeconds, e.errorRate() * 100,
+                e.percentileMillis(50), e.percentileMillis(90), e.percentileMillis(99),
+                e.percentileMillis(99.9), e.maxMillis())));
+        sb.append(String.format("TOTAL %d requests in %.1fs = %.1f req/s, error rate %.2f%%",
+                totalCount(), elapsedSeconds, totalCount() / elapsedSeconds, errorRate() * 100));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,245 @@
+package perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import utils.ConfigReader;
+import utils.HttpClients;
+import utils.Resilience;
+import utils.TokenManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of the running suite in Prometheus text format, served on
+ * {@code http://127.0.0.1:<metrics.port>/metrics} when {@code metrics.enabled=true}.
+ *
+ * <p>Requests are pushed by {@code utils.TimingFilter} and {@code utils.AsyncHttpEngine} (one sample
+ * per attempt, warmup included), scenarios by the Cucumber hooks. Token, connection and retry
+ * counters are read from {@link TokenManager}, {@link HttpClients} and {@link Resilience} at scrape
+ * time, so nothing is duplicated.
+ */
+public final class LiveMetrics {
+
+    // Seconds; the usual Prometheus client defaults, which cover 5 ms .. 10 s
+    private static final double[] BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private static final ConcurrentMap<String, LongAdder> REQUESTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Histogram> DURATIONS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> SCENARIOS = new ConcurrentHashMap<>();
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger SCENARIOS_RUNNING = new AtomicInteger();
+    private static final long STARTED = System.currentTimeMillis();
+
+    private static HttpServer server;
+
+    private LiveMetrics() {}
+
+    private static final class Histogram {
+        final LongAdder[] buckets = new LongAdder[BUCKETS.length];
+        final LongAdder count = new LongAdder();
+        final DoubleAdder sum = new DoubleAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void observe(double seconds) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (seconds <= BUCKETS[i]) {
+                    buckets[i].increment();
+                    break;
+                }
+            }
+            count.increment();
+            sum.add(seconds);
+        }
+    }
+
+    public static void requestStarted() {
+        IN_FLIGHT.incrementAndGet();
+    }
+
+    /**
+     * Completes a request begun with {@link #requestStarted()}.
+     *
+     * @param endpoint template key such as {@code GET /books/{id}}
+     * @param status   HTTP status, or -1 for a transport failure
+     */
+    public static void requestFinished(String endpoint, int status, long nanos) {
+        IN_FLIGHT.decrementAndGet();
+        String code = status < 0 ? "error" : String.valueOf(status);
+        REQUESTS.computeIfAbsent(endpoint + '\n' + code, k -> new LongAdder()).increment();
+        DURATIONS.computeIfAbsent(endpoint, k -> new Histogram()).observe(nanos / 1e9);
+    }
+
+    public static void scenarioStarted() {
+        SCENARIOS_RUNNING.incrementAndGet();
+    }
+
+    /** @param status Cucumber status, e.g. {@code PASSED}, {@code FAILED}, {@code SKIPPED} */
+    public static void scenarioFinished(String status) {
+        SCENARIOS_RUNNING.decrementAndGet();
+        SCENARIOS.computeIfAbsent(status.toLowerCase(Locale.ROOT), k -> new LongAdder()).increment();
+    }
+
+    /** Starts the exposition endpoint if {@code metrics.enabled}; a busy port only logs a warning. */
+    public static synchronized void start(ConfigReader cfg) {
+        if (server != null || !cfg.getBoolean("metrics.enabled", false)) {
+            return;
+        }
+        int port = cfg.getInt("metrics.port", 9464);
+        try {
+            HttpServer s = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            s.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "live-metrics");
+                t.setDaemon(true);
+                return t;
+            }));
+            s.createContext("/metrics", LiveMetrics::serve);
+            s.start();
+            server = s;
+            System.out.println("[Metrics] Prometheus metrics on http://127.0.0.1:" + s.getAddress().getPort() + "/metrics");
+        } catch (IOException e) {
+            System.out.println("[Metrics] Could not listen on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    /** Keeps serving for {@code metrics.linger.seconds} so the final values get scraped, then stops. */
+    public static synchronized void stop(ConfigReader cfg) {
+        if (server == null) {
+            return;
+        }
+        long linger = cfg.getLong("metrics.linger.seconds", 0);
+        if (linger > 0) {
+            System.out.println("[Metrics] Serving final values for " + linger + " s");
+            try {
+                Thread.sleep(linger * 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        server.stop(0);
+        server = null;
+    }
+
+    private static void serve(HttpExchange exchange) {
+        try {
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException ignored) {
+            // Scraper went away
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /** The current values in Prometheus text exposition format 0.0.4. */
+    public static String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+
+        header(sb, "harness_http_requests_total", "counter", "HTTP attempts by endpoint and status (error = no response)");
+        new TreeMap<>(REQUESTS).forEach((key, count) -> {
+            int split = key.indexOf('\n');
+            sample(sb, "harness_http_requests_total", endpointLabels(key.substring(0, split))
+                    + ",status=\"" + key.substring(split + 1) + "\"", count.sum());
+        });
+
+        header(sb, "harness_http_requests_in_flight", "gauge", "HTTP requests sent and not yet completed");
+        sample(sb, "harness_http_requests_in_flight", null, IN_FLIGHT.get());
+
+        header(sb, "harness_http_request_duration_seconds", "histogram", "HTTP attempt latency until the body is read");
+        new TreeMap<>(DURATIONS).forEach((endpoint, h) -> {
+            String labels = endpointLabels(endpoint);
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                cumulative += h.buckets[i].sum();
+                sample(sb, "harness_http_request_duration_seconds_bucket", labels + ",le=\"" + BUCKETS[i] + "\"", cumulative);
+            }
+            long count = h.count.sum();
+            sample(sb, "harness_http_request_duration_seconds_bucket", labels + ",le=\"+Inf\"", count);
+            sample(sb, "harness_http_request_duration_seconds_sum", labels, h.sum.sum());
+            sample(sb, "harness_http_request_duration_seconds_count", labels, count);
+        });
+
+        Map<String, Resilience.EndpointStats> retries = Resilience.shared().stats();
+        header(sb, "harness_http_retries_total", "counter", "Retries of transient failures");
+        retries.forEach((endpoint, s) -> sample(sb, "harness_http_retries_total", endpointLabels(endpoint), s.retries()));
+        header(sb, "harness_http_short_circuited_total", "counter", "Requests failed fast by an open circuit");
+        retries.forEach((endpoint, s) ->
+                sample(sb, "harness_http_short_circuited_total", endpointLabels(endpoint), s.shortCircuited()));
+        header(sb, "harness_circuit_open", "gauge", "1 while the endpoint's circuit is open or half-open");
+        retries.forEach((endpoint, s) -> sample(sb, "harness_circuit_open", endpointLabels(endpoint),
+                s.state() == Resilience.State.CLOSED ? 0 : 1));
+
+        HttpClients.Stats http = HttpClients.stats();
+        header(sb, "harness_http_connections_opened_total", "counter", "TCP connections opened by the pooled client");
+        sample(sb, "harness_http_connections_opened_total", null, http.opened());
+
+        TokenManager.Stats auth = TokenManager.stats();
+        header(sb, "harness_token_refreshes_total", "counter", "Logins performed to obtain or renew a token");
+        sample(sb, "harness_token_refreshes_total", null, auth.refreshes());
+        header(sb, "harness_token_refresh_failures_total", "counter", "Logins that failed");
+        sample(sb, "harness_token_refresh_failures_total", null, auth.failedRefreshes());
+        header(sb, "harness_unauthorized_retries_total", "counter", "Requests replayed after a 401");
+        sample(sb, "harness_unauthorized_retries_total", null, auth.unauthorizedRetries());
+
+        header(sb, "harness_scenarios_total", "counter", "Finished scenarios by status");
+        new TreeMap<>(SCENARIOS).forEach((status, count) ->
+                sample(sb, "harness_scenarios_total", "status=\"" + escape(status) + "\"", count.sum()));
+        header(sb, "harness_scenarios_running", "gauge", "Scenarios currently executing");
+        sample(sb, "harness_scenarios_running", null, SCENARIOS_RUNNING.get());
+
+        header(sb, "harness_start_time_seconds", "gauge", "Start of the run, Unix time");
+        sample(sb, "harness_start_time_seconds", null, STARTED / 1000);
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name);
+        if (labels != null) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append('\n');
+    }
+
+    /** {@code GET /books/{id}} → {@code method="GET",path="/books/{id}"}. */
+    private static String endpointLabels(String endpoint) {
+        int space = endpoint.indexOf(' ');
+        String method = space < 0 ? "" : endpoint.substring(0, space);
+        String path = space < 0 ? endpoint : endpoint.substring(space + 1);
+        return "method=\"" + escape(method) + "\",path=\"" + escape(path) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,103 @@
+package perf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shape of the arrival rate over a run, as a multiplier of each operation's target rate made of
+ * linear segments: constant, a ramp from zero followed by a plateau, or equal steps up to 100%.
+ *
+ * <p>Arrival times are derived exactly from the profile: the k-th request of an operation with
+ * rate {@code r} is due when {@code r * ∫ multiplier dt} reaches {@code k}.
+ */
+public final class LoadProfile {
+
+    private record Segment(double seconds, double from, double to) {
+        double area() {
+            return seconds * (from + to) / 2;
+        }
+    }
+
+    private final List<Segment> segments;
+    private final String description;
+
+    private LoadProfile(List<Segment> segments, String description) {
+        this.segments = List.copyOf(segments);
+        this.description = description;
+    }
+
+    /** Full rate for the whole run. */
+    public static LoadProfile constant(double seconds) {
+        return new LoadProfile(List.of(new Segment(seconds, 1, 1)), "constant " + fmt(seconds) + "s");
+    }
+
+    /** Linear ramp from 0 to full rate over {@code rampSeconds}, then full rate until {@code seconds}. */
+    public static LoadProfile rampUp(double seconds, double rampSeconds) {
+        double ramp = Math.min(rampSeconds, seconds);
+        List<Segment> segments = new ArrayList<>();
+        segments.add(new Segment(ramp, 0, 1));
+        if (seconds > ramp) {
+            segments.add(new Segment(seconds - ramp, 1, 1));
+        }
+        return new LoadProfile(segments, "ramp 0→100% over " + fmt(ramp) + "s, " + fmt(seconds) + "s total");
+    }
+
+    /** {@code steps} equal-length plateaus at 1/steps, 2/steps, … 100% of the rate. */
+    public static LoadProfile steps(double seconds, int steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Need at least one step");
+        }
+        List<Segment> segments = new ArrayList<>();
+        for (int i = 1; i <= steps; i++) {
+            double level = (double) i / steps;
+            segments.add(new Segment(seconds / steps, level, level));
+        }
+        return new LoadProfile(segments, steps + " steps of " + fmt(seconds / steps) + "s up to 100%");
+    }
+
+    public double seconds() {
+        return segments.stream().mapToDouble(Segment::seconds).sum();
+    }
+
+    /** Expected number of arrivals over the run for an operation with the given rate. */
+    public double expectedArrivals(double ratePerSecond) {
+        return ratePerSecond * segments.stream().mapToDouble(Segment::area).sum();
+    }
+
+    /**
+     * Seconds into the run at which the {@code k}-th arrival (1-based) is due for an operation with
+     * the given rate, or {@code NaN} if it falls after the end of the profile.
+     */
+    public double arrivalSeconds(long k, double ratePerSecond) {
+        double remaining = k / ratePerSecond;
+        double start = 0;
+        for (Segment s : segments) {
+            double area = s.area();
+            if (remaining <= area && area > 0) {
+                return start + offsetFor(s, remaining);
+            }
+            remaining -= area;
+            start += s.seconds();
+        }
+        return Double.NaN;
+    }
+
+    /** Solves {@code from·t + (to-from)·t²/(2·L) = x} for t within one segment. */
+    private static double offsetFor(Segment s, double x) {
+        double a = s.from();
+        double c = (s.to() - s.from()) / (2 * s.seconds());
+        if (Math.abs(c) < 1e-12) {
+            return x / a;
+        }
+        return (-a + Math.sqrt(a * a + 4 * c * x)) / (2 * c);
+    }
+
+    private static String fmt(double seconds) {
+        return seconds == Math.rint(seconds) ? String.valueOf((long) seconds) : String.format("%.1f", seconds);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
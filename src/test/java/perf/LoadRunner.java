@@ -0,0 +1,141 @@
+package perf;
+
+import io.restassured.response.Response;
+import utils.ScenarioContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Replays a weighted mix of step texts with N virtual users, paced to a target total request rate,
+ * for a fixed duration. Each virtual user owns its thread, its {@link ScenarioContext} and its glue
+ * instance, so requests go through the normal {@code sendRequest} + {@code AuthRetryFilter} path.
+ */
+public final class LoadRunner {
+
+    /** One entry of the mix; {@code expectedStatus} null means "any 2xx". */
+    public record Operation(String stepText, double weight, Integer expectedStatus) {}
+
+    private final List<Operation> mix;
+    private final int users;
+    private final double requestsPerSecond;
+    private final Duration duration;
+
+    public LoadRunner(List<Operation> mix, int users, double requestsPerSecond, Duration duration) {
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Load mix is empty");
+        }
+        if (users < 1 || requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Need at least one user and a positive rate");
+        }
+        this.mix = List.copyOf(mix);
+        this.users = users;
+        this.requestsPerSecond = requestsPerSecond;
+        this.duration = duration;
+    }
+
+    /**
+     * Runs the load and blocks until every virtual user has finished.
+     *
+     * @param glueFactory creates the step-definition instance for a virtual user (called on its thread)
+     * @param replayer    resolves step texts against that glue class
+     * @return per-endpoint latency and error statistics
+     */
+    public LatencyStats run(Supplier<Object> glueFactory, StepReplayer replayer) throws InterruptedException {
+        List<StepReplayer.BoundStep> steps = new ArrayList<>();
+        double[] cumulative = new double[mix.size()];
+        double total = 0;
+        for (int i = 0; i < mix.size(); i++) {
+            steps.add(replayer.bind(mix.get(i).stepText()));
+            total += mix.get(i).weight();
+            cumulative[i] = total;
+        }
+        final double totalWeight = total;
+
+        LatencyStats stats = new LatencyStats();
+        long intervalNanos = (long) (users * 1_000_000_000L / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        AtomicInteger ids = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(users, r -> {
+            Thread t = new Thread(r, "load-vu-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int u = 0; u < users; u++) {
+            // Stagger users across one interval so arrivals are spread rather than bursty.
+            long firstSend = start + intervalNanos * u / users;
+            pool.execute(() -> runUser(glueFactory, steps, cumulative, totalWeight, stats, firstSend, intervalNanos, end));
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(duration.toMillis() + TimeUnit.MINUTES.toMillis(2), TimeUnit.MILLISECONDS)) {
+            pool.shutdownNow();
+        }
+        return stats;
+    }
+
+    private void runUser(Supplier<Object> glueFactory, List<StepReplayer.BoundStep> steps, double[] cumulative,
+                         double totalWeight, LatencyStats stats, long firstSend, long intervalNanos, long end) {
+        ScenarioContext ctx = ScenarioContext.begin(Thread.currentThread().getName());
+        ctx.setVerbose(false);
+        try {
+            Object glue = glueFactory.get();
+            long next = firstSend;
+            while (next < end) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int pick = pick(cumulative, totalWeight);
+                Operation op = mix.get(pick);
+
+                ctx.setResponse(null);
+                ctx.setLastEndpoint(null);
+                long t0 = System.nanoTime();
+                boolean error;
+                try {
+                    steps.get(pick).invoke(glue);
+                    error = isError(op, ctx.getResponse());
+                } catch (Exception | AssertionError e) {
+                    error = true;
+                }
+                long latency = System.nanoTime() - t0;
+
+                String key = ctx.getLastEndpoint() != null ? Endpoints.template(ctx.getLastEndpoint()) : op.stepText();
+                stats.record(key, latency, error);
+
+                // Closed model: a slow user falls behind instead of bursting to catch up.
+                next = Math.max(next + intervalNanos, System.nanoTime());
+            }
+        } finally {
+            ScenarioContext.end();
+        }
+    }
+
+    private static int pick(double[] cumulative, double totalWeight) {
+        double r = ThreadLocalRandom.current().nextDouble(totalWeight);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+
+    private static boolean isError(Operation op, Response response) {
+        if (response == null) {
+            return false;
+        }
+        int code = response.getStatusCode();
+        return op.expectedStatus() != null ? code != op.expectedStatus() : (code < 200 || code >= 300);
+    }
+}
@@ -0,0 +1,183 @@
+package perf;
+
+import io.restassured.response.Response;
+import utils.ScenarioContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load: every operation of the mix has its own arrival rate, and requests are issued on
+ * that fixed timeline whether or not earlier ones have returned. Latency is measured from the
+ * <em>intended</em> send time, so time spent queued behind a slow API counts against it instead of
+ * silently lowering the offered load (coordinated omission). Service time, measured from the
+ * actual send, is reported next to it; the gap between the two is the queueing delay.
+ *
+ * <p>One scheduler thread dispatches arrivals to up to {@code workers} threads, each with its own
+ * {@link ScenarioContext} and glue instance, so steps run through the normal {@code sendRequest}
+ * path. Arrivals that find every worker busy wait in an unbounded queue; their wait is included in
+ * the latency. Arrivals still queued two minutes after the schedule ends are dropped and counted as
+ * errors ({@code unfinished}); requests already in flight are waited for, so nothing writes to the
+ * stats once they are returned.
+ */
+public final class OpenLoadRunner {
+
+    /** One entry of the mix; {@code expectedStatus} null means "any 2xx". */
+    public record Operation(String stepText, double ratePerSecond, Integer expectedStatus) {}
+
+    /** Latency from the intended send time, service time from the actual send, plus scheduling counters. */
+    public record Result(LatencyStats latency, LatencyStats serviceTime, long scheduled, long unfinished,
+                         long maxQueueDepth, double maxLateMillis, double elapsedSeconds) {}
+
+    private final List<Operation> mix;
+    private final LoadProfile profile;
+    private final int workers;
+
+    public OpenLoadRunner(List<Operation> mix, LoadProfile profile, int workers) {
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Load mix is empty");
+        }
+        if (mix.stream().anyMatch(op -> op.ratePerSecond() <= 0) || workers < 1) {
+            throw new IllegalArgumentException("Need positive rates and at least one worker");
+        }
+        this.mix = List.copyOf(mix);
+        this.profile = profile;
+        this.workers = workers;
+    }
+
+    private record Arrival(int op, long k, long dueNanos) {}
+
+    /** A dispatched arrival; kept as such in the pool's queue so a dropped one can still be recorded. */
+    private record Dispatch(Operation op, long dueNanos, Runnable task) implements Runnable {
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    /**
+     * Runs the schedule and blocks until every issued request has completed.
+     *
+     * @param glueFactory creates the step-definition instance for a worker (called on its thread)
+     * @param replayer    resolves step texts against that glue class
+     */
+    public Result run(Supplier<Object> glueFactory, StepReplayer replayer) throws InterruptedException {
+        List<StepReplayer.BoundStep> steps = new ArrayList<>();
+        for (Operation op : mix) {
+            steps.add(replayer.bind(op.stepText()));
+        }
+
+        LatencyStats latency = new LatencyStats();
+        LatencyStats service = new LatencyStats();
+        ThreadLocal<Object> glue = ThreadLocal.withInitial(glueFactory);
+        AtomicInteger ids = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(() -> {
+                ScenarioContext.begin(Thread.currentThread().getName()).setVerbose(false);
+                try {
+                    r.run();
+                } finally {
+                    ScenarioContext.end();
+                }
+            }, "open-load-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.prestartAllCoreThreads();
+
+        long scheduled = 0;
+        long maxQueue = 0;
+        long maxLateNanos = 0;
+        long start = System.nanoTime();
+
+        // Merge the per-operation timelines and dispatch in due order
+        PriorityQueue<Arrival> timeline = new PriorityQueue<>((a, b) -> Long.compare(a.dueNanos(), b.dueNanos()));
+        for (int i = 0; i < mix.size(); i++) {
+            Arrival first = arrival(i, 1, start);
+            if (first != null) {
+                timeline.add(first);
+            }
+        }
+        try {
+            while (!timeline.isEmpty()) {
+                Arrival next = timeline.poll();
+                long wait = next.dueNanos() - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                maxLateNanos = Math.max(maxLateNanos, System.nanoTime() - next.dueNanos());
+                Operation op = mix.get(next.op());
+                StepReplayer.BoundStep step = steps.get(next.op());
+                long due = next.dueNanos();
+                pool.execute(new Dispatch(op, due, () -> issue(op, step, glue.get(), due, latency, service)));
+                scheduled++;
+                maxQueue = Math.max(maxQueue, pool.getQueue().size());
+
+                Arrival following = arrival(next.op(), next.k() + 1, start);
+                if (following != null) {
+                    timeline.add(following);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long unfinished = 0;
+        if (!pool.awaitTermination(2, TimeUnit.MINUTES)) {
+            List<Runnable> dropped = pool.shutdownNow();
+            long now = System.nanoTime();
+            for (Runnable r : dropped) {
+                Dispatch d = (Dispatch) r;
+                latency.record(d.op().stepText(), now - d.dueNanos(), true);
+            }
+            unfinished = dropped.size();
+            System.out.println("[Load] " + unfinished + " queued requests dropped as errors; waiting for "
+                    + pool.getActiveCount() + " in flight");
+            // In-flight requests end within the client timeouts
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.out.println("[Load] Still waiting for " + pool.getActiveCount() + " requests in flight");
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        return new Result(latency, service, scheduled, unfinished, maxQueue, maxLateNanos / 1e6, elapsed);
+    }
+
+    private Arrival arrival(int op, long k, long start) {
+        double at = profile.arrivalSeconds(k, mix.get(op).ratePerSecond());
+        return Double.isNaN(at) ? null : new Arrival(op, k, start + (long) (at * 1e9));
+    }
+
+    private static void issue(Operation op, StepReplayer.BoundStep step, Object glue, long dueNanos,
+                              LatencyStats latency, LatencyStats service) {
+        ScenarioContext ctx = ScenarioContext.current();
+        ctx.setResponse(null);
+        ctx.setLastEndpoint(null);
+        long sent = System.nanoTime();
+        boolean error;
+        try {
+            step.invoke(glue);
+            error = isError(op, ctx.getResponse());
+        } catch (Exception | AssertionError e) {
+            error = true;
+        }
+        long done = System.nanoTime();
+        String key = ctx.getLastEndpoint() != null ? Endpoints.template(ctx.getLastEndpoint()) : op.stepText();
+        latency.record(key, done - dueNanos, error);
+        service.record(key, done - sent, error);
+    }
+
+    private static boolean isError(Operation op, Response response) {
+        if (response == null) {
+            return false;
+        }
+        int code = response.getStatusCode();
+        return op.expectedStatus() != null ? code != op.expectedStatus() : (code < 200 || code >= 300);
+    }
+}
@@ -0,0 +1,149 @@
+package perf;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import utils.ConfigReader;
+import utils.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares this run's per-endpoint latency percentile against a baseline {@code latency.json}
+ * (committed to the repo or copied from the last green CI build).
+ *
+ * <p>An endpoint regresses only when both sides have at least {@code perf.gate.min.samples}
+ * post-warmup samples and the current value exceeds {@code baseline * (1 + tolerance%)}
+ * by more than {@code perf.gate.min.delta.ms}; the absolute slack keeps millisecond-level
+ * noise on fast endpoints from failing the build.
+ */
+public final class PerfGate {
+
+    public enum Status { PASS, REGRESSED, IMPROVED, INSUFFICIENT_SAMPLES, NEW, MISSING }
+
+    /** One line of the diff table. {@code baselineMs}/{@code currentMs} are NaN when absent. */
+    public record Result(String endpoint, long baselineCount, long currentCount,
+                         double baselineMs, double currentMs, double tolerancePercent, Status status) {
+
+        public double changePercent() {
+            return baselineMs > 0 ? (currentMs - baselineMs) / baselineMs * 100 : Double.NaN;
+        }
+    }
+
+    private final Path baseline;
+    private final String metric;
+    private final double percentile;
+    private final double defaultTolerance;
+    private final Map<String, Double> tolerances;
+    private final long minSamples;
+    private final double minDeltaMillis;
+
+    public PerfGate(Path baseline, String metric, double percentile, double defaultTolerance,
+                    Map<String, Double> tolerances, long minSamples, double minDeltaMillis) {
+        this.baseline = baseline;
+        this.metric = metric;
+        this.percentile = percentile;
+        this.defaultTolerance = defaultTolerance;
+        this.tolerances = Map.copyOf(tolerances);
+        this.minSamples = minSamples;
+        this.minDeltaMillis = minDeltaMillis;
+    }
+
+    /**
+     * Builds the gate from {@code perf.gate.*} settings.
+     * {@code perf.gate.tolerances} overrides the default per endpoint, e.g.
+     * {@code GET /books/{id}=30;POST /books/=50}.
+     */
+    public static PerfGate fromConfig(ConfigReader cfg) {
+        Map<String, Double> tolerances = new HashMap<>();
+        String spec = cfg.get("perf.gate.tolerances", "");
+        for (String entry : spec.split(";")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq > 0) {
+                tolerances.put(entry.substring(0, eq).trim(), Double.parseDouble(entry.substring(eq + 1).trim()));
+            }
+        }
+        return new PerfGate(
+                Path.of(cfg.get("perf.gate.baseline", "perf-baseline.json")),
+                cfg.get("perf.gate.metric", RequestTimings.TOTAL),
+                cfg.getDouble("perf.gate.percentile", 95),
+                cfg.getDouble("perf.gate.tolerance.percent", 20),
+                tolerances,
+                cfg.getLong("perf.gate.min.samples", 5),
+                cfg.getDouble("perf.gate.min.delta.ms", 5));
+    }
+
+    public Path baseline() { return baseline; }
+    public boolean hasBaseline() { return Files.isRegularFile(baseline); }
+
+    /** Evaluates the current run against the baseline file. */
+    public List<Result> evaluate(LatencyStats current) throws IOException {
+        List<Map<String, Object>> rows = Json.MAPPER.readValue(baseline.toFile(), new TypeReference<>() {});
+        String key = RequestTimings.percentileKey(percentile);
+
+        Map<String, Map<String, Object>> base = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            if (metric.equals(row.get("metric"))) {
+                if (!row.containsKey(key)) {
+                    throw new IllegalArgumentException("Baseline " + baseline + " has no '" + key + "' column");
+                }
+                base.put((String) row.get("endpoint"), row);
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        Map<String, LatencyStats.Entry> entries = current.entries();
+        entries.forEach((endpoint, e) -> {
+            Map<String, Object> b = base.get(endpoint);
+            double tolerance = tolerances.getOrDefault(endpoint, defaultTolerance);
+            double now = e.percentileMillis(percentile);
+            if (b == null) {
+                results.add(new Result(endpoint, 0, e.count(), Double.NaN, now, tolerance, Status.NEW));
+                return;
+            }
+            long baseCount = ((Number) b.get("count")).longValue();
+            double then = ((Number) b.get(key)).doubleValue();
+            Status status;
+            if (baseCount < minSamples || e.count() < minSamples) {
+                status = Status.INSUFFICIENT_SAMPLES;
+            } else if (now > then * (1 + tolerance / 100) && now - then > minDeltaMillis) {
+                status = Status.REGRESSED;
+            } else if (now < then * (1 - tolerance / 100) && then - now > minDeltaMillis) {
+                status = Status.IMPROVED;
+            } else {
+                status = Status.PASS;
+            }
+            results.add(new Result(endpoint, baseCount, e.count(), then, now, tolerance, status));
+        });
+        base.forEach((endpoint, b) -> {
+            if (!entries.containsKey(endpoint)) {
+                results.add(new Result(endpoint, ((Number) b.get("count")).longValue(), 0,
+                        ((Number) b.get(key)).doubleValue(), Double.NaN, defaultTolerance, Status.MISSING));
+            }
+        });
+        return results;
+    }
+
+    public static boolean hasRegression(List<Result> results) {
+        return results.stream().anyMatch(r -> r.status() == Status.REGRESSED);
+    }
+
+    /** Fixed-width diff table for console and Extent. */
+    public String formatTable(List<Result> results) {
+        String p = "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-40s %8s %8s %11s %11s %8s %6s  %s%n",
+                "endpoint (" + metric + ")", "n base", "n now", p + " base", p + " now", "change", "tol%", "status"));
+        for (Result r : results) {
+            sb.append(String.format(Locale.ROOT, "%-40s %8d %8d %11.2f %11.2f %7.1f%% %6.0f  %s%n",
+                    r.endpoint(), r.baselineCount(), r.currentCount(), r.baselineMs(), r.currentMs(),
+                    r.changePercent(), r.tolerancePercent(), r.status()));
+        }
+        return sb.toString();
+    }
+}
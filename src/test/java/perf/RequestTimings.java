@@ -0,0 +1,194 @@
+package perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.HdrHistogram.Histogram;
+import utils.ConfigReader;
+import utils.Json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+
+/**
+ * Run-wide request timings fed by {@code utils.TimingFilter}: one histogram per endpoint template
+ * for the full exchange and one for time-to-first-byte (response headers received).
+ * Written to {@code target/perf/} at the end of the run as a per-build performance baseline.
+ *
+ * <p>The first {@code perf.warmup} requests of each endpoint (connection setup, JIT, server caches)
+ * are only counted, not recorded, so the histograms describe steady state.
+ */
+public final class RequestTimings {
+
+    public static final String TOTAL = "total";
+    public static final String FIRST_BYTE = "first_byte";
+    public static final String HISTOGRAMS = "latency-histograms.json";
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private static final LatencyStats TOTAL_STATS = new LatencyStats();
+    private static final LatencyStats FIRST_BYTE_STATS = new LatencyStats();
+    private static final ConcurrentMap<String, AtomicLong> SEEN = new ConcurrentHashMap<>();
+    private static final int WARMUP = ConfigReader.defaults().getInt("perf.warmup", 1);
+
+    private RequestTimings() {}
+
+    /**
+     * Records one HTTP exchange.
+     *
+     * @param endpoint       template key such as {@code GET /books/{id}}
+     * @param totalNanos     request sent until body fully read (buffered)
+     * @param firstByteNanos request sent until headers received, or negative if unknown
+     * @param error          true for 5xx responses and transport failures
+     */
+    public static void record(String endpoint, long totalNanos, long firstByteNanos, boolean error) {
+        if (SEEN.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet() <= WARMUP) {
+            return;
+        }
+        TOTAL_STATS.record(endpoint, totalNanos, error);
+        if (firstByteNanos >= 0) {
+            FIRST_BYTE_STATS.record(endpoint, firstByteNanos, error);
+        }
+    }
+
+    public static LatencyStats total() { return TOTAL_STATS; }
+    public static LatencyStats firstByte() { return FIRST_BYTE_STATS; }
+
+    /** Requests discarded as warmup for the endpoint. */
+    public static long warmup(String endpoint) {
+        AtomicLong seen = SEEN.get(endpoint);
+        return seen == null ? 0 : Math.min(seen.get(), WARMUP);
+    }
+
+    /** One row per endpoint and metric, percentiles in milliseconds. */
+    public static List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        TOTAL_STATS.entries().forEach((endpoint, e) -> rows.add(row(endpoint, TOTAL, e)));
+        FIRST_BYTE_STATS.entries().forEach((endpoint, e) -> rows.add(row(endpoint, FIRST_BYTE, e)));
+        return rows;
+    }
+
+    private static Map<String, Object> row(String endpoint, String metric, LatencyStats.Entry e) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("endpoint", endpoint);
+        row.put("metric", metric);
+        row.put("count", e.count());
+        row.put("errors", e.errors());
+        row.put("warmup", warmup(endpoint));
+        row.put("mean_ms", round(e.meanMillis()));
+        for (double p : PERCENTILES) {
+            row.put(percentileKey(p), round(e.percentileMillis(p)));
+        }
+        row.put("max_ms", round(e.maxMillis()));
+        return row;
+    }
+
+    /** {@code 99.9} becomes {@code p99_9_ms}. */
+    static String percentileKey(double percentile) {
+        String p = percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile).replace('.', '_');
+        return "p" + p + "_ms";
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+
+    /**
+     * Writes {@code latency.json} and {@code latency.csv} into {@code dir}, plus the raw histograms
+     * ({@code latency-histograms.json}) that {@link #load} merges, e.g. across shards.
+     *
+     * @return the written files, JSON first
+     */
+    public static List<Path> write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        List<Map<String, Object>> rows = rows();
+        writeHistograms(dir.resolve(HISTOGRAMS));
+
+        Path json = dir.resolve("latency.json");
+        Json.MAPPER.writerWithDefaultPrettyPrinter().writeValue(json.toFile(), rows);
+
+        Path csv = dir.resolve("latency.csv");
+        StringBuilder sb = new StringBuilder();
+        if (!rows.isEmpty()) {
+            sb.append(String.join(",", rows.get(0).keySet())).append('\n');
+            for (Map<String, Object> row : rows) {
+                List<String> cells = new ArrayList<>();
+                row.values().forEach(v -> cells.add(csvCell(v)));
+                sb.append(String.join(",", cells)).append('\n');
+            }
+        }
+        Files.writeString(csv, sb.toString(), StandardCharsets.UTF_8);
+        return List.of(json, csv);
+    }
+
+    /** Adds the histograms of a {@code latency-histograms.json} written by another run. */
+    public static void load(Path file) throws IOException {
+        JsonNode root = Json.MAPPER.readTree(file.toFile());
+        for (JsonNode entry : root) {
+            String endpoint = entry.path("endpoint").asText();
+            LatencyStats stats = FIRST_BYTE.equals(entry.path("metric").asText()) ? FIRST_BYTE_STATS : TOTAL_STATS;
+            byte[] encoded = Base64.getDecoder().decode(entry.path("histogram").asText());
+            Histogram histogram;
+            try {
+                histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt histogram for " + endpoint + " in " + file, e);
+            }
+            stats.add(endpoint, histogram, entry.path("errors").asLong());
+            if (stats == TOTAL_STATS) {
+                SEEN.computeIfAbsent(endpoint, k -> new AtomicLong()).addAndGet(entry.path("warmup").asLong());
+            }
+        }
+    }
+
+    private static void writeHistograms(Path file) throws IOException {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (String metric : List.of(TOTAL, FIRST_BYTE)) {
+            LatencyStats stats = TOTAL.equals(metric) ? TOTAL_STATS : FIRST_BYTE_STATS;
+            stats.entries().forEach((endpoint, e) -> {
+                ByteBuffer buffer = ByteBuffer.allocate(e.histogram().getNeededByteBufferCapacity());
+                int length = e.histogram().encodeIntoCompressedByteBuffer(buffer);
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("endpoint", endpoint);
+                entry.put("metric", metric);
+                entry.put("errors", e.errors());
+                entry.put("warmup", TOTAL.equals(metric) ? warmup(endpoint) : 0);
+                entry.put("histogram", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+                entries.add(entry);
+            });
+        }
+        Json.MAPPER.writeValue(file.toFile(), entries);
+    }
+
+    private static String csvCell(Object value) {
+        String s = value instanceof Double d ? String.format(Locale.ROOT, "%.3f", d) : String.valueOf(value);
+        return s.contains(",") || s.contains("\"") ? "\"" + s.replace("\"", "\"\"") + "\"" : s;
+    }
+
+    /** Human-readable summary (full exchange and first byte) for console and Extent. */
+    public static String formatSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-40s %-10s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "metric", "count", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map<String, Object> row : rows()) {
+            sb.append(String.format(Locale.ROOT, "%-40s %-10s %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.get("endpoint"), row.get("metric"), (Long) row.get("count"),
+                    row.get("p50_ms"), row.get("p90_ms"), row.get("p95_ms"), row.get("p99_ms"), row.get("max_ms")));
+        }
+        return sb.toString();
+    }
+}
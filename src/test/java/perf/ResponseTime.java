@@ -0,0 +1,44 @@
+package perf;
+
+/**
+ * Where the time of one API call went. {@code total} is measured around the call by the step that
+ * sent it (token refreshes, 401 retries and client overhead included); the phases describe the
+ * final HTTP attempt:
+ * <ul>
+ *   <li>{@code connect}: opening a new TCP/TLS connection, 0 when a pooled one is reused;</li>
+ *   <li>{@code wait}: sending the request until the response status line and headers arrive;</li>
+ *   <li>{@code transfer}: reading the response body.</li>
+ * </ul>
+ * A phase the engine can't observe is {@link #UNKNOWN}; the JDK client behind
+ * {@code -Drequest.engine=async} exposes neither connect nor wait separately.
+ */
+public record ResponseTime(long totalNanos, long connectNanos, long waitNanos, long transferNanos) {
+
+    public static final long UNKNOWN = -1;
+
+    /** Only the overall time is known. */
+    public static ResponseTime total(long totalNanos) {
+        return new ResponseTime(totalNanos, UNKNOWN, UNKNOWN, UNKNOWN);
+    }
+
+    /** The same phases with the overall time measured by the caller. */
+    public ResponseTime withTotal(long totalNanos) {
+        return new ResponseTime(totalNanos, connectNanos, waitNanos, transferNanos);
+    }
+
+    public double totalMillis() {
+        return totalNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return connectNanos == UNKNOWN && waitNanos == UNKNOWN && transferNanos == UNKNOWN
+                ? millis(totalNanos)
+                : String.format("%s (connect %s, wait %s, transfer %s)",
+                        millis(totalNanos), millis(connectNanos), millis(waitNanos), millis(transferNanos));
+    }
+
+    private static String millis(long nanos) {
+        return nanos == UNKNOWN ? "n/a" : String.format("%.2f ms", nanos / 1e6);
+    }
+}
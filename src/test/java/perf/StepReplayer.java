@@ -0,0 +1,81 @@
+package perf;
+
+import io.cucumber.cucumberexpressions.Argument;
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import io.cucumber.java.en.When;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resolves Gherkin step text (e.g. {@code I send a GET request to books with id 12}) against the
+ * {@code @When} step definitions of a glue class, so load runs reuse the regular step vocabulary.
+ */
+public final class StepReplayer {
+
+    /** A step text bound to its step definition and already-converted arguments. */
+    public static final class BoundStep {
+        private final String text;
+        private final Method method;
+        private final Object[] args;
+
+        private BoundStep(String text, Method method, Object[] args) {
+            this.text = text;
+            this.method = method;
+            this.args = args;
+        }
+
+        public String text() { return text; }
+
+        /** Invokes the step on the given glue instance, rethrowing the step's own exception. */
+        public void invoke(Object glue) throws Exception {
+            try {
+                method.invoke(glue, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception ex) {
+                    throw ex;
+                }
+                if (cause instanceof Error err) {
+                    throw err;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private record Definition(Expression expression, Method method) {}
+
+    private final List<Definition> definitions = new ArrayList<>();
+
+    public StepReplayer(Class<?> glueClass) {
+        ExpressionFactory factory = new ExpressionFactory(new ParameterTypeRegistry(Locale.ENGLISH));
+        for (Method method : glueClass.getMethods()) {
+            When when = method.getAnnotation(When.class);
+            if (when != null) {
+                definitions.add(new Definition(factory.createExpression(when.value()), method));
+            }
+        }
+    }
+
+    /**
+     * Binds a step text to its definition.
+     *
+     * @throws IllegalArgumentException if no {@code @When} definition matches the text
+     */
+    public BoundStep bind(String stepText) {
+        for (Definition def : definitions) {
+            List<Argument<?>> match = def.expression().match(stepText, def.method().getGenericParameterTypes());
+            if (match != null) {
+                Object[] args = match.stream().map(Argument::getValue).toArray();
+                return new BoundStep(stepText, def.method(), args);
+            }
+        }
+        throw new IllegalArgumentException("No @When step definition matches: " + stepText);
+    }
+}
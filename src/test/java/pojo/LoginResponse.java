@@ -14,4 +14,5 @@ public class LoginResponse {
     public String getAccess_token() { return access_token; }
     public void setAccess_token(String access_token) { this.access_token = access_token; }
     public Integer getExpiresIn() { return expires_in; }
+    public void setExpires_in(Integer expires_in) { this.expires_in = expires_in; }
 }
@@ -0,0 +1,158 @@
+package runner;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import perf.PerfGate;
+import perf.RequestTimings;
+import utils.ConfigReader;
+import utils.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Combines the outputs of sharded runs ({@code -Dshard=k/n}, see {@link ShardFilter}) into one
+ * set of reports, as if the suite had run on a single agent:
+ * <ul>
+ *   <li>{@code cucumber.json}: features concatenated, scenarios of a feature split across shards
+ *   joined again;</li>
+ *   <li>{@code perf/latency-histograms.json}: histograms added, then {@code latency.json/.csv}
+ *   recomputed from them (percentiles can't be averaged);</li>
+ *   <li>{@code ExtentReport.json}: archives combined into {@code ExtentSparkReport.html} and a
+ *   merged archive, from which {@link PdfReport} can render the PDF.</li>
+ * </ul>
+ * With {@code perf.gate.enabled=true} the {@link PerfGate} then judges the merged histograms: each
+ * shard only has part of the samples, so it can't be gated on its own. A regression fails the merge
+ * after the reports are written.
+ *
+ * <p>Arguments: {@code <shards dir> [output dir]}; every subdirectory of the shards dir is one
+ * shard's copy of its {@code target/} files. Run with {@code mvn -Pshards test-compile exec:exec@merge-shards};
+ * settings for the forked JVM, such as {@code -Dperf.gate.enabled=true}, go in {@code -Dmerge.jvm.args}.
+ */
+public final class MergeShards {
+
+    private MergeShards() {}
+
+    public static void main(String[] args) throws IOException {
+        Path shardsDir = Path.of(args.length > 0 ? args[0] : "shards");
+        Path out = Path.of(args.length > 1 ? args[1] : "target");
+        List<Path> shards;
+        try (Stream<Path> list = Files.list(shardsDir)) {
+            shards = list.filter(Files::isDirectory).sorted().toList();
+        }
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("No shard directories in " + shardsDir);
+        }
+        Files.createDirectories(out);
+        System.out.println("[Shard] Merging " + shards.size() + " shards from " + shardsDir + " into " + out);
+
+        mergeCucumber(shards, out.resolve("cucumber.json"));
+        mergeTimings(shards, out.resolve("perf"));
+        mergeExtent(shards, out);
+
+        ConfigReader cfg = ConfigReader.defaults();
+        if (cfg.getBoolean("perf.gate.enabled", false)) {
+            checkPerfGate(PerfGate.fromConfig(cfg));
+        }
+    }
+
+    private static void checkPerfGate(PerfGate gate) throws IOException {
+        if (!gate.hasBaseline()) {
+            System.out.println("[Perf] WARN: perf.gate.enabled=true but there is no baseline at " + gate.baseline()
+                    + "; regression gate skipped");
+            return;
+        }
+        List<PerfGate.Result> results = gate.evaluate(RequestTimings.total());
+        String table = gate.formatTable(results);
+        System.out.println("[Perf] Regression gate of the merged shards vs " + gate.baseline() + "\n" + table);
+        if (PerfGate.hasRegression(results)) {
+            throw new AssertionError("Performance regression against " + gate.baseline() + ":\n" + table);
+        }
+    }
+
+    private static void mergeCucumber(List<Path> shards, Path target) throws IOException {
+        Map<String, ObjectNode> features = new LinkedHashMap<>();
+        int scenarios = 0;
+        for (Path shard : shards) {
+            Path file = shard.resolve("cucumber.json");
+            if (!Files.isRegularFile(file)) {
+                System.out.println("[Shard] " + shard.getFileName() + " has no cucumber.json");
+                continue;
+            }
+            for (JsonNode feature : Json.MAPPER.readTree(file.toFile())) {
+                ObjectNode merged = features.computeIfAbsent(feature.path("uri").asText(), uri -> {
+                    ObjectNode copy = ((ObjectNode) feature).deepCopy();
+                    copy.set("elements", Json.MAPPER.createArrayNode());
+                    return copy;
+                });
+                ArrayNode elements = (ArrayNode) merged.get("elements");
+                for (JsonNode element : feature.path("elements")) {
+                    elements.add(element);
+                    scenarios += "scenario".equals(element.path("type").asText()) ? 1 : 0;
+                }
+            }
+        }
+        // Back in feature-file order, so the merged report reads like a single run
+        for (ObjectNode feature : features.values()) {
+            List<JsonNode> elements = new ArrayList<>();
+            feature.get("elements").forEach(elements::add);
+            elements.sort((a, b) -> Integer.compare(a.path("line").asInt(), b.path("line").asInt()));
+            feature.set("elements", Json.MAPPER.createArrayNode().addAll(elements));
+        }
+        Json.MAPPER.writeValue(target.toFile(), features.values());
+        System.out.println("[Shard] " + target + ": " + features.size() + " features, " + scenarios + " scenarios");
+    }
+
+    private static void mergeTimings(List<Path> shards, Path perfDir) throws IOException {
+        int loaded = 0;
+        for (Path shard : shards) {
+            Path file = shard.resolve("perf").resolve(RequestTimings.HISTOGRAMS);
+            if (Files.isRegularFile(file)) {
+                RequestTimings.load(file);
+                loaded++;
+            }
+        }
+        if (loaded == 0) {
+            System.out.println("[Shard] No latency histograms to merge");
+            return;
+        }
+        List<Path> files = RequestTimings.write(perfDir);
+        System.out.println("[Perf] Request latency of " + loaded + " shards\n" + RequestTimings.formatSummary());
+        System.out.println("[Perf] Written " + files);
+    }
+
+    private static void mergeExtent(List<Path> shards, Path out) throws IOException {
+        ExtentReports extent = new ExtentReports();
+        int loaded = 0;
+        for (Path shard : shards) {
+            File archive = shard.resolve("ExtentReport.json").toFile();
+            if (archive.isFile()) {
+                extent.createDomainFromJsonArchive(archive);
+                loaded++;
+            }
+        }
+        if (loaded == 0) {
+            System.out.println("[Shard] No Extent archives to merge");
+            return;
+        }
+        ExtentSparkReporter spark = new ExtentSparkReporter(out.resolve("ExtentSparkReport.html").toFile());
+        File config = new File("src/test/resources/extent-config.xml");
+        if (config.isFile()) {
+            spark.loadXMLConfig(config);
+        }
+        extent.attachReporter(spark, new JsonFormatter(out.resolve("ExtentReport.json").toFile()));
+        extent.flush();
+        System.out.println("[Shard] " + out.resolve("ExtentSparkReport.html") + " from " + loaded + " Extent archives");
+    }
+}
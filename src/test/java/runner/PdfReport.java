@@ -0,0 +1,35 @@
+package runner;
+
+import com.aventstack.extentreports.ExtentReports;
+import tech.grasshopper.pdf.extent.ExtentPDFCucumberReporter;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Builds the Extent PDF report after the run from the JSON archive the suite writes
+ * ({@code extent.reporter.json.out} in extent.properties), so the slow PDF rendering no longer
+ * happens inside the test JVM's final flush.
+ *
+ * <p>Run after a test run, passed or failed, with {@code mvn -Ppdf test-compile exec:exec@extent-pdf}
+ * ({@code mvn verify -Ppdf} only gets there when every test passes). Arguments: [json archive] [pdf output].
+ */
+public final class PdfReport {
+
+    private PdfReport() {}
+
+    public static void main(String[] args) throws IOException {
+        File json = new File(args.length > 0 ? args[0] : "target/ExtentReport.json");
+        String pdf = args.length > 1 ? args[1] : "target/ExtentReport.pdf";
+        if (!json.isFile()) {
+            System.out.println("[Report] No Extent JSON archive at " + json + "; run the tests first");
+            return;
+        }
+        long start = System.nanoTime();
+        ExtentReports extent = new ExtentReports();
+        extent.createDomainFromJsonArchive(json);
+        extent.attachReporter(new ExtentPDFCucumberReporter(pdf, "test-output/"));
+        extent.flush();
+        System.out.printf("[Report] Written %s from %s in %.1fs%n", pdf, json, (System.nanoTime() - start) / 1e9);
+    }
+}
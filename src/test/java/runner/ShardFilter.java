@@ -0,0 +1,224 @@
+package runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cucumber.tagexpressions.Expression;
+import io.cucumber.tagexpressions.TagExpressionParser;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.TestTag;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FilePosition;
+import org.junit.platform.engine.support.descriptor.FileSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import utils.ConfigReader;
+import utils.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Runs only one shard of the scenarios when started with {@code -Dshard=<k>/<n>}, so n agents can
+ * split the suite. Scenarios are balanced by their duration in an earlier run's Cucumber JSON
+ * ({@code shard.history}, default {@code target/cucumber.json}): longest first, each onto the
+ * shard with the least estimated time so far. Scenarios without history count as the median.
+ * Every agent computes the same plan from the same history, so the shards never overlap.
+ *
+ * <p>Scenarios that {@code cucumber.filter.tags}/{@code cucumber.filter.name} will skip are left
+ * out of the balancing. Registered through {@code META-INF/services}; without {@code shard} it
+ * keeps everything.
+ */
+public final class ShardFilter implements PostDiscoveryFilter {
+
+    private record Scenario(String key, String name, String uri, double seconds) {}
+
+    // Computed once per JVM: the filter may see the tree more than once (suite engine and launcher)
+    private static Map<String, Integer> plan;
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        ConfigReader cfg = ConfigReader.defaults();
+        String shard = cfg.get("shard", "").trim();
+        if (shard.isEmpty() || !descriptor.isTest()) {
+            return FilterResult.included("not sharded");
+        }
+        int[] kn = parse(shard);
+        Map<String, Integer> assignment = plan(descriptor, kn, cfg);
+        Integer assigned = assignment.get(key(descriptor));
+        return assigned == null || assigned == kn[0]
+                ? FilterResult.included("shard " + shard)
+                : FilterResult.excluded("in shard " + assigned + "/" + kn[1]);
+    }
+
+    private static synchronized Map<String, Integer> plan(TestDescriptor any, int[] kn, ConfigReader cfg) {
+        if (plan != null) {
+            return plan;
+        }
+        TestDescriptor root = any;
+        while (root.getParent().isPresent()) {
+            root = root.getParent().get();
+        }
+        Path history = Path.of(cfg.get("shard.history", "target/cucumber.json"));
+        Map<String, Double> byLine = new HashMap<>();
+        Map<String, Double> byName = new HashMap<>();
+        readHistory(history, byLine, byName);
+
+        Expression tags = TagExpressionParser.parse(junitSetting("cucumber.filter.tags", ""));
+        String nameFilter = junitSetting("cucumber.filter.name", "");
+        Pattern names = nameFilter.isBlank() ? null : Pattern.compile(nameFilter);
+
+        List<TestDescriptor> tests = new ArrayList<>();
+        collectTests(root, tests);
+        List<Scenario> scenarios = new ArrayList<>();
+        List<Double> known = new ArrayList<>();
+        int skipped = 0;
+        for (TestDescriptor test : tests) {
+            List<String> testTags = test.getTags().stream().map(t -> "@" + t.getName()).toList();
+            String name = test.getDisplayName();
+            if (!tags.evaluate(testTags) || (names != null && !names.matcher(name).find())) {
+                skipped++;
+                continue;
+            }
+            String key = key(test);
+            String uri = uri(test.getSource()).orElse("");
+            Double seconds = byLine.get(key);
+            if (seconds == null) {
+                seconds = byName.get(uri + "#" + name);
+            }
+            if (seconds != null) {
+                known.add(seconds);
+            }
+            scenarios.add(new Scenario(key, name, uri, seconds == null ? Double.NaN : seconds));
+        }
+        known.sort(Double::compare);
+        double median = known.isEmpty() ? 1.0 : known.get(known.size() / 2);
+
+        // Longest processing time first: deterministic for the same tree and history
+        scenarios.replaceAll(s -> Double.isNaN(s.seconds()) ? new Scenario(s.key(), s.name(), s.uri(), median) : s);
+        scenarios.sort(Comparator.comparingDouble(Scenario::seconds).reversed().thenComparing(Scenario::key));
+        double[] load = new double[kn[1]];
+        int[] counts = new int[kn[1]];
+        Map<String, Integer> assignment = new HashMap<>();
+        for (Scenario s : scenarios) {
+            int target = 0;
+            for (int i = 1; i < load.length; i++) {
+                if (load[i] < load[target]) {
+                    target = i;
+                }
+            }
+            load[target] += s.seconds();
+            counts[target]++;
+            assignment.put(s.key(), target + 1);
+        }
+
+        double total = 0;
+        for (double l : load) {
+            total += l;
+        }
+        System.out.printf("[Shard] %d/%d: %d of %d scenarios, estimated %.1fs of %.1fs (history: %s, %d known, %d filtered out)%n",
+                kn[0], kn[1], counts[kn[0] - 1], scenarios.size(), load[kn[0] - 1], total,
+                Files.isRegularFile(history) ? history : "none", known.size(), skipped);
+        plan = assignment;
+        return plan;
+    }
+
+    /** {@code 2/4} → {2, 4}; shards are numbered from 1. */
+    static int[] parse(String shard) {
+        String[] parts = shard.split("/");
+        try {
+            int k = Integer.parseInt(parts[0].trim());
+            int n = Integer.parseInt(parts[1].trim());
+            if (parts.length == 2 && n >= 1 && k >= 1 && k <= n) {
+                return new int[]{k, n};
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ignored) {
+            // fall through
+        }
+        throw new IllegalArgumentException("shard must look like <k>/<n> with 1 <= k <= n, got: " + shard);
+    }
+
+    /** Scenario duration (steps and hooks) per {@code uri:line} and per {@code uri#name}. */
+    private static void readHistory(Path file, Map<String, Double> byLine, Map<String, Double> byName) {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        JsonNode features;
+        try {
+            features = Json.MAPPER.readTree(file.toFile());
+        } catch (IOException e) {
+            System.out.println("[Shard] Ignoring unreadable history " + file + ": " + e.getMessage());
+            return;
+        }
+        Map<String, double[]> nameTotals = new HashMap<>();
+        for (JsonNode feature : features) {
+            String uri = feature.path("uri").asText();
+            for (JsonNode element : feature.path("elements")) {
+                if (!"scenario".equals(element.path("type").asText())) {
+                    continue;
+                }
+                long nanos = 0;
+                for (String part : List.of("before", "steps", "after")) {
+                    for (JsonNode step : element.path(part)) {
+                        nanos += step.path("result").path("duration").asLong(0);
+                    }
+                }
+                double seconds = nanos / 1e9;
+                byLine.merge(uri + ":" + element.path("line").asInt(), seconds, Double::sum);
+                double[] sum = nameTotals.computeIfAbsent(uri + "#" + element.path("name").asText(), k -> new double[2]);
+                sum[0] += seconds;
+                sum[1]++;
+            }
+        }
+        nameTotals.forEach((key, sum) -> byName.put(key, sum[0] / sum[1]));
+    }
+
+    private static void collectTests(TestDescriptor descriptor, List<TestDescriptor> tests) {
+        if (descriptor.isTest()) {
+            tests.add(descriptor);
+        }
+        descriptor.getChildren().forEach(child -> collectTests(child, tests));
+    }
+
+    /** {@code classpath:features/books.feature:12}, the same uri and line as in Cucumber's JSON. */
+    private static String key(TestDescriptor test) {
+        Optional<TestSource> source = test.getSource();
+        Optional<Integer> line = source.flatMap(s -> s instanceof ClasspathResourceSource c ? c.getPosition()
+                : s instanceof FileSource f ? f.getPosition() : Optional.empty()).map(FilePosition::getLine);
+        return uri(source).isPresent() && line.isPresent()
+                ? uri(source).get() + ":" + line.get()
+                : test.getUniqueId().toString();
+    }
+
+    private static Optional<String> uri(Optional<TestSource> source) {
+        return source.flatMap(s -> s instanceof ClasspathResourceSource c
+                ? Optional.of("classpath:" + c.getClasspathResourceName())
+                : s instanceof FileSource f ? Optional.of(f.getFile().toURI().toString()) : Optional.empty());
+    }
+
+    /** A JUnit Platform setting: system property first, then junit-platform.properties. */
+    private static String junitSetting(String key, String fallback) {
+        String value = System.getProperty(key);
+        if (value != null) {
+            return value;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = ShardFilter.class.getClassLoader().getResourceAsStream("junit-platform.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException ignored) {
+            // no file settings
+        }
+        return properties.getProperty(key, fallback);
+    }
+}
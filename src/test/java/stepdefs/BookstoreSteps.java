@@ -1,57 +1,64 @@
 package stepdefs;
 
-import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
-import io.restassured.RestAssured;
 import io.restassured.response.Response;
-import io.restassured.specification.RequestSpecification;
+import perf.LatencyStats;
+import perf.ResponseTime;
 import pojo.LoginRequest;
 import pojo.LoginResponse;
-import utils.AuthRetryFilter;
 import utils.BookDataGenerator;
+import utils.CatalogSeeder;
 import utils.ConfigReader;
-import utils.JsonFileReader;
-
+import utils.HttpCacheFilter;
+import utils.JsonArrayScanner;
+import utils.Json;
+import utils.ReportQueue;
+import utils.RequestLog;
+import utils.ScenarioContext;
+import utils.TestPayloads;
+import utils.TimingFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
-import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 public class BookstoreSteps {
-    private static final ConfigReader CONFIG = new ConfigReader("src/test/resources/config.properties");
-    private static final String BASE_URL = (CONFIG.get("base_uri") != null ? CONFIG.get("base_uri").trim() : "http://localhost:8000");
-
-    // Install baseURI + token auto-retry filter globally; no changes to step methods required.
-    static {
-        RestAssured.baseURI = System.getProperty("api.base", BASE_URL);
-        RestAssured.filters(new AuthRetryFilter());
-    }
+    private static final ConfigReader CONFIG = ConfigReader.defaults();
 
-    private Response response;
+    // Base URI and the token auto-retry filter live on the per-scenario request spec
+    // (see ScenarioContext), so parallel scenarios never touch RestAssured's static config.
+    private final ScenarioContext context = ScenarioContext.current();
     private String jwtToken;
 
     /**
-     * Logs a message to Extent report if available,
-     * otherwise logs to console (prevents NullPointerException when Extent isn't initialized).
+     * Logs a message to the Extent report (if available) and the console, through the
+     * asynchronous {@link ReportQueue} so the request thread doesn't wait on report I/O.
      */
     private void logSafe(String message) {
-        try {
-            ExtentCucumberAdapter.addTestStepLog(message);
-        }catch (Throwable t) {
-            // Extent not ready, ignore
+        if (!context.isVerbose()) {
+            return;
         }
-        System.out.println(message);
+        ReportQueue.log(message);
     }
 
 
     /**
      * Sends HTTP request with optional JWT token and optional request body.
-     * Logs request and response in Extent Report.
+     * Request and response are handed to {@link RequestLog}, which decides (log.mode) whether
+     * they are written to the Extent report now, only if the scenario fails, or not at all.
+     * The call is timed with {@code nanoTime} around the engine; connect, wait and transfer come
+     * from {@link TimingFilter} and end up in {@link ScenarioContext#getResponseTime()}.
      *
      * @param method   HTTP method (GET, POST, PUT, DELETE)
      * @param endpoint API endpoint
@@ -59,37 +66,40 @@ public class BookstoreSteps {
      * @return Response from the API
      */
     private Response sendRequest(String method, String endpoint, String body) {
+        return sendRequest(method, endpoint, body, Map.of());
+    }
+
+    /** {@link #sendRequest(String, String, String)} with extra request headers. */
+    private Response sendRequest(String method, String endpoint, String body, Map<String, String> extraHeaders) {
         try {
-            RequestSpecification request = given()
-                    .header("Content-Type", "application/json");
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("Content-Type", "application/json");
+            headers.putAll(extraHeaders);
 
             if (jwtToken != null) {
-                request.header("Authorization", "Bearer " + jwtToken);
+                headers.put("Authorization", "Bearer " + jwtToken);
             }
 
-            if (body != null && !body.trim().isEmpty()) {
-                request.body(body);
-            }
-
-            logSafe("📤 Request: " + method + " " + endpoint);
-            if (body != null && !body.trim().isEmpty()) {
-                logSafe("📦 Payload:\n" + body);
-            }
+            context.setLastEndpoint(method.toUpperCase() + " " + endpoint);
 
-            Response resp = switch (method.toUpperCase()) {
-                case "GET" -> request.get(endpoint);
-                case "POST" -> request.post(endpoint);
-                case "PUT" -> request.put(endpoint);
-                case "DELETE" -> request.delete(endpoint);
-                default -> throw new IllegalArgumentException("Unsupported method: " + method);
-            };
+            TimingFilter.clearLast();
+            long start = System.nanoTime();
+            Response resp = context.engine().send(method, endpoint, body, headers);
+            long total = System.nanoTime() - start;
+            ResponseTime phases = TimingFilter.last();
+            context.setResponseTime(phases != null ? phases.withTotal(total) : ResponseTime.total(total));
 
-            logSafe("📥 Response Status: " + resp.getStatusCode());
-            logSafe("📄 Response Body:\n" + resp.getBody().asPrettyString());
+            if (context.isVerbose()) {
+                RequestLog.record(context, new RequestLog.Exchange(method, endpoint, body, resp,
+                        TimingFilter.isStreamed(resp)), this::logSafe);
+            }
 
             return resp;
 
         } catch (Exception e) {
+            if (context.isVerbose()) {
+                RequestLog.record(context, new RequestLog.Exchange(method, endpoint, body, null), this::logSafe);
+            }
             logSafe("❌ Request failed: " + e.getMessage());
             throw e;
         }
@@ -101,38 +111,33 @@ public class BookstoreSteps {
 
     /** Login using credentials from config file. */
     @When("I login using valid credentials")
-    public void loginWithConfig() throws JsonProcessingException {
-        LoginRequest loginRequest = new LoginRequest(
-                Integer.parseInt(CONFIG.get("id")),
-                CONFIG.get("email"),
-                CONFIG.get("password")
-        );
-
-        ObjectMapper mapper = new ObjectMapper();
-        String body = mapper.writeValueAsString(loginRequest);
-
-        response = given()
+    public void loginWithConfig() {
+        Response response = context.request()
                 .header("Content-Type", "application/json")
-                .body(body)
-                .post(BASE_URL + "/login");
+                .body(Json.write(new LoginRequest(
+                        Integer.parseInt(CONFIG.get("id")),
+                        CONFIG.get("email"),
+                        CONFIG.get("password"))))
+                .post("/login");
+        context.setResponse(response);
 
         assertEquals(200, response.getStatusCode(), "Login should be successful");
 
-        LoginResponse loginResponse = mapper.readValue(response.getBody().asString(), LoginResponse.class);
+        LoginResponse loginResponse = Json.read(response.getBody().asString(), LoginResponse.class);
         System.out.println("JWT Token: " + loginResponse.getAccess_token());
     }
 
     /** SignUp using a JSON file containing credentials. */
     @When("I send a POST request to signup with body {string}")
-    public void signUp(String fileName) throws Exception {
-        String body = JsonFileReader.readJsonFromFile(fileName);
-        response = sendRequest("POST", BASE_URL + "/login", body);
+    public void signUp(String fileName) {
+        String body = TestPayloads.text(fileName);
+        context.setResponse(sendRequest("POST", "/login", body));
     }
 
     @When("I send a POST request to login with body {string}")
-    public void loginWithJsonFile(String fileName) throws Exception {
-        String body = JsonFileReader.readJsonFromFile(fileName);
-        response = sendRequest("POST", BASE_URL + "/login", body);
+    public void loginWithJsonFile(String fileName) {
+        String body = TestPayloads.text(fileName);
+        context.setResponse(sendRequest("POST", "/login", body));
     }
 
 
@@ -142,16 +147,16 @@ public class BookstoreSteps {
      * @param payloadSource "RANDOM" for generated data or filename for JSON payload.
      */
     @When("I send a POST request to books with {string} and JWT")
-    public void createBook(String payloadSource) throws Exception {
+    public void createBook(String payloadSource) {
         String body;
 
         if (payloadSource.equalsIgnoreCase("RANDOM")) {
-            body = new ObjectMapper().writeValueAsString(BookDataGenerator.generateRandomBook());
+            body = BookDataGenerator.shared().nextBookJson();
         } else {
-            body = JsonFileReader.readJsonFromFile(payloadSource);
+            body = TestPayloads.text(payloadSource);
         }
 
-        response = sendRequest("POST", BASE_URL + "/books/", body);
+        context.setResponse(sendRequest("POST", "/books/", body));
     }
 
     /**
@@ -159,7 +164,16 @@ public class BookstoreSteps {
      */
     @When("I send a GET request to books")
     public void getBooks() {
-        response = sendRequest("GET", BASE_URL + "/books/", null);
+        context.setResponse(sendRequest("GET", "/books/", null));
+    }
+
+    /**
+     * Like {@link #getBooks()}, but a 2xx body stays on the connection for the streamed steps, which
+     * read it once in constant memory; its transfer time is recorded when they are done.
+     */
+    @When("I send a streaming GET request to books")
+    public void getBooksStreaming() {
+        context.setResponse(TimingFilter.streaming(() -> sendRequest("GET", "/books/", null)));
     }
 
     /**
@@ -169,7 +183,7 @@ public class BookstoreSteps {
      */
     @When("I send a GET request to books with id {int}")
     public void getBookById(int bookId) {
-        response = sendRequest("GET", BASE_URL + "/books/" + bookId, null);
+        context.setResponse(sendRequest("GET", "/books/" + bookId, null));
     }
 
     /**
@@ -179,16 +193,16 @@ public class BookstoreSteps {
      * @param payloadSource "RANDOM" for generated data or filename for JSON payload.
      */
     @When("I send a PUT request to books with id {int} using {string}")
-    public void updateBook(int bookId, String payloadSource) throws Exception {
+    public void updateBook(int bookId, String payloadSource) {
         String body;
 
         if (payloadSource.equalsIgnoreCase("RANDOM")) {
-            body = new ObjectMapper().writeValueAsString(BookDataGenerator.generateRandomBook());
+            body = BookDataGenerator.shared().nextBookJson();
         } else {
-            body = JsonFileReader.readJsonFromFile(payloadSource);
+            body = TestPayloads.text(payloadSource);
         }
 
-        response = sendRequest("PUT", BASE_URL + "/books/" + bookId, body);
+        context.setResponse(sendRequest("PUT", "/books/" + bookId, body));
     }
 
     /**
@@ -198,7 +212,68 @@ public class BookstoreSteps {
      */
     @When("I send a DELETE request to books with id {int}")
     public void deleteBook(int bookId) {
-        response = sendRequest("DELETE", BASE_URL + "/books/" + bookId, null);
+        context.setResponse(sendRequest("DELETE", "/books/" + bookId, null));
+    }
+
+    /** Retrieves one of the books created by {@link CatalogSeeder} before the suite. */
+    @When("I send a GET request to a seeded book")
+    public void getSeededBook() {
+        getBookById(CatalogSeeder.anyId());
+    }
+
+    /**
+     * Updates one of the seeded books.
+     *
+     * @param payloadSource "RANDOM" for generated data or filename for JSON payload.
+     */
+    @When("I send a PUT request to a seeded book using {string}")
+    public void updateSeededBook(String payloadSource) {
+        updateBook(CatalogSeeder.anyId(), payloadSource);
+    }
+
+    /** Deletes a seeded book; the id is taken out of the pool so no other scenario still uses it. */
+    @When("I send a DELETE request to a seeded book")
+    public void deleteSeededBook() {
+        deleteBook(CatalogSeeder.takeId());
+    }
+
+    /**
+     * Fires {@code count} GET /books/ requests without waiting for each one, through the run's
+     * request engine; with {@code -Drequest.engine=async} they are all in flight at once.
+     *
+     * @param count number of concurrent requests
+     */
+    @When("I send {int} concurrent GET requests to books")
+    public void getBooksConcurrently(int count) {
+        Map<String, String> headers = Map.of("Content-Type", "application/json");
+        logSafe("📤 Request: " + count + " x GET /books/ concurrently");
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Response>> calls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            calls.add(context.engine().sendAsync("GET", "/books/", null, headers));
+        }
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        for (CompletableFuture<Response> call : calls) {
+            int status;
+            try {
+                status = call.join().getStatusCode();
+            } catch (RuntimeException e) {
+                status = -1; // transport failure
+            }
+            statusCounts.merge(status, 1L, Long::sum);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        context.setStatusCounts(statusCounts);
+        logSafe(String.format("📥 %d responses in %.2fs (%.0f req/s), status counts %s",
+                count, seconds, count / seconds, statusCounts));
+    }
+
+    @Then("all concurrent responses should have status {int}")
+    public void verifyConcurrentStatus(int expectedStatus) {
+        Map<Integer, Long> statusCounts = context.getStatusCounts();
+        assertEquals(Set.of(expectedStatus), statusCounts.keySet(),
+                "Expected every response to be " + expectedStatus + " but got " + statusCounts);
     }
 
     /**
@@ -208,20 +283,195 @@ public class BookstoreSteps {
      */
     @Then("the response status should be {int}")
     public void verifyStatus(int expectedStatus) {
+        Response response = context.getResponse();
         assertEquals(expectedStatus, response.getStatusCode(),
                 "Expected status " + expectedStatus + " but got " + response.getStatusCode());
     }
 
     @Then("the response should contain at least {int} book")
     public void verifyBookCount(int minCount) {
-        List<Map<String, Object>> books = response.jsonPath().getList("$");
+        List<Map<String, Object>> books = context.getResponse().jsonPath().getList("$");
         assertTrue(books.size() >= minCount, "Expected at least " + minCount + " books");
     }
 
     @Then("the first book should have a name and author")
     public void verifyFirstBookFields() {
-        Map<String, Object> firstBook = response.jsonPath().getMap("[0]");
+        Map<String, Object> firstBook = context.getResponse().jsonPath().getMap("[0]");
         assertNotNull(firstBook.get("name"), "Book name should not be null");
         assertNotNull(firstBook.get("author"), "Book author should not be null");
     }
+
+    /**
+     * Streaming variant of the book count check: walks the array token by token and stops once
+     * {@code minCount} elements have been seen, without building a list of maps.
+     */
+    @Then("the streamed response should contain at least {int} books")
+    public void verifyBookCountStreaming(int minCount) throws IOException {
+        long seen;
+        try {
+            seen = JsonArrayScanner.countAtLeast(context.getResponse().asInputStream(), minCount);
+        } finally {
+            TimingFilter.finishStream();
+        }
+        assertTrue(seen >= minCount, "Expected at least " + minCount + " books but found " + seen);
+    }
+
+    /**
+     * Checks every book in the response for the given comma-separated fields (present, not null)
+     * in one streaming pass; only the first few offending elements are reported in detail.
+     */
+    @Then("every streamed book should have {string}")
+    public void verifyAllBooksStreaming(String fields) throws IOException {
+        List<String> required = Arrays.stream(fields.split(",")).map(String::trim).filter(f -> !f.isEmpty()).toList();
+        JsonArrayScanner.Result result;
+        try {
+            result = JsonArrayScanner.validate(context.getResponse().asInputStream(), required, 10);
+        } finally {
+            TimingFilter.finishStream();
+        }
+        logSafe("🔎 Scanned " + result.count() + " books, " + result.invalid() + " invalid");
+        assertEquals(0, result.invalid(), result.invalid() + " of " + result.count()
+                + " books are missing " + required + ": " + result.violations());
+    }
+
+    // -------------------
+    // Response-time SLA Steps
+    // -------------------
+
+    /** Response-time contract for the last request; the phases are in the failure message. */
+    @Then("the response time should be under {int} ms")
+    public void verifyResponseTime(int maxMillis) {
+        ResponseTime time = context.getResponseTime();
+        assertNotNull(time, "No request has been sent in this scenario");
+        logSafe("⏱ " + context.getLastEndpoint() + " took " + time);
+        assertTrue(time.totalMillis() < maxMillis, context.getLastEndpoint() + " took " + time
+                + ", SLA is under " + maxMillis + " ms");
+    }
+
+    /**
+     * Latency contract over repeated calls: {@code sla.warmup} untimed GET /books/ calls first (JIT,
+     * connection pool, server caches), then {@code calls} timed ones one after another. The
+     * distribution of total, connect, wait and transfer time goes to the Extent report; the
+     * percentile of the total time is checked against the limit, and every call must succeed.
+     *
+     * @param percentile percentile to check, e.g. 95 or 99.9
+     * @param calls      timed calls
+     * @param maxMillis  limit for that percentile
+     */
+    @Then("p{double} latency of GET books over {int} calls should be under {int} ms")
+    public void verifyLatencyPercentile(double percentile, int calls, int maxMillis) {
+        int warmup = CONFIG.getInt("sla.warmup", 5);
+        LatencyStats phases = new LatencyStats();
+        Response last = null;
+        int failed = 0;
+        boolean verbose = context.isVerbose();
+        context.setVerbose(false); // one report entry for the whole series, not one per call
+        try {
+            for (int i = 0; i < warmup + calls; i++) {
+                last = sendRequest("GET", "/books/", null);
+                if (i < warmup) {
+                    continue;
+                }
+                boolean error = last.getStatusCode() < 200 || last.getStatusCode() >= 300;
+                failed += error ? 1 : 0;
+                ResponseTime time = context.getResponseTime();
+                phases.record("total", time.totalNanos(), error);
+                recordPhase(phases, "connect", time.connectNanos(), error);
+                recordPhase(phases, "wait", time.waitNanos(), error);
+                recordPhase(phases, "transfer", time.transferNanos(), error);
+            }
+        } finally {
+            context.setVerbose(verbose);
+        }
+        context.setResponse(last);
+
+        double measured = phases.entries().get("total").percentileMillis(percentile);
+        String summary = String.format("⏱ GET /books/ over %d calls (%d warmup): p%s %.2f ms, SLA under %d ms%n%s",
+                calls, warmup, percentileLabel(percentile), measured, maxMillis, formatPhases(phases, percentile));
+        if (verbose) {
+            ReportQueue.step("<pre>" + summary + "</pre>");
+            ReportQueue.console(summary);
+        }
+        assertEquals(0, failed, failed + " of " + calls + " calls did not return 2xx\n" + summary);
+        assertTrue(measured < maxMillis, summary);
+    }
+
+    private static void recordPhase(LatencyStats phases, String phase, long nanos, boolean error) {
+        if (nanos != ResponseTime.UNKNOWN) {
+            phases.record(phase, nanos, error);
+        }
+    }
+
+    private static String percentileLabel(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static String formatPhases(LatencyStats phases, double percentile) {
+        StringBuilder sb = new StringBuilder(String.format("%-10s %6s %9s %9s %9s %9s %9s %9s",
+                "phase", "count", "min ms", "p50 ms", "p90 ms", "p" + percentileLabel(percentile) + " ms",
+                "p99 ms", "max ms"));
+        for (String name : List.of("total", "connect", "wait", "transfer")) {
+            LatencyStats.Entry e = phases.entries().get(name);
+            if (e != null) {
+                sb.append(String.format("%n%-10s %6d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f", name, e.count(),
+                        e.histogram().getMinValue() / 1e6, e.percentileMillis(50), e.percentileMillis(90),
+                        e.percentileMillis(percentile), e.percentileMillis(99), e.maxMillis()));
+            }
+        }
+        return sb.toString();
+    }
+
+    // -------------------
+    // HTTP cache Steps
+    // -------------------
+
+    /** Turns the client-side {@link HttpCacheFilter} on for this scenario (see http.cache.enabled). */
+    @Given("the HTTP cache is enabled")
+    public void enableHttpCache() {
+        context.httpCache().enable();
+    }
+
+    /**
+     * Repeats the last GET with the validators of its response ({@code If-None-Match} from the
+     * ETag, {@code If-Modified-Since} from Last-Modified), bypassing the client cache, so the
+     * server's own 304 handling can be asserted.
+     */
+    @When("I send the same GET request with its validators")
+    public void resendConditionally() {
+        String last = context.getLastEndpoint();
+        assertTrue(last != null && last.startsWith("GET "), "Expected a previous GET request but got " + last);
+        Response previous = context.getResponse();
+        Map<String, String> conditional = new LinkedHashMap<>();
+        if (previous.getHeader("ETag") != null) {
+            conditional.put("If-None-Match", previous.getHeader("ETag"));
+        }
+        if (previous.getHeader("Last-Modified") != null) {
+            conditional.put("If-Modified-Since", previous.getHeader("Last-Modified"));
+        }
+        assertFalse(conditional.isEmpty(), last + " returned neither ETag nor Last-Modified");
+        context.setResponse(sendRequest("GET", last.substring("GET ".length()), null, conditional));
+    }
+
+    @Then("the response should carry cache validators")
+    public void verifyValidators() {
+        Response response = context.getResponse();
+        String etag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+        logSafe("🏷 ETag " + etag + ", Last-Modified " + lastModified + ", Cache-Control "
+                + response.getHeader("Cache-Control"));
+        assertTrue(etag != null || lastModified != null, "Expected an ETag or Last-Modified header");
+    }
+
+    @Then("the response should be served from the HTTP cache")
+    public void verifyCached() {
+        String how = context.getResponse().getHeader(HttpCacheFilter.CACHE_HEADER);
+        assertNotNull(how, "Expected the response to come from the client cache (" + HttpCacheFilter.stats() + ")");
+        logSafe("💾 Served from the HTTP cache: " + how);
+    }
+
+    @Then("the response should not be served from the HTTP cache")
+    public void verifyNotCached() {
+        assertNull(context.getResponse().getHeader(HttpCacheFilter.CACHE_HEADER),
+                "Expected a full response from the server");
+    }
 }
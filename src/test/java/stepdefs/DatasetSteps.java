@@ -0,0 +1,57 @@
+package stepdefs;
+
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import utils.ConfigReader;
+import utils.DatasetSweep;
+import utils.ReportQueue;
+import utils.ScenarioContext;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Data-driven sweeps: one scenario sends a request per row of a CSV/NDJSON dataset (see
+ * {@link utils.Dataset}) and asserts on the aggregate, instead of one Cucumber example per row.
+ * Rows are streamed, so the dataset can be far larger than memory.
+ */
+public class DatasetSteps {
+    private static final ConfigReader CONFIG = ConfigReader.defaults();
+
+    private final ScenarioContext context = ScenarioContext.current();
+    private DatasetSweep.Result result;
+
+    private static void logSafe(String message) {
+        ReportQueue.step("<pre>" + message + "</pre>");
+        ReportQueue.console(message);
+    }
+
+    /**
+     * Sends a {@code method} request to books for every row of the dataset.
+     *
+     * @param method   POST, PUT, GET or DELETE
+     * @param dataset  file path or name under testData/ (.csv, .ndjson, .jsonl, optionally .gz)
+     * @param inFlight maximum concurrent requests
+     */
+    @When("I send {word} requests to books for each row of {string} with {int} in flight")
+    public void sweep(String method, String dataset, int inFlight) throws IOException {
+        logSafe("🗂 Dataset sweep: " + method.toUpperCase() + " " + dataset + ", " + inFlight + " in flight");
+        result = new DatasetSweep(context.engine(), inFlight, CONFIG).run(dataset, method);
+        logSafe("📊 " + result + "\n" + result.latency().formatTable(result.seconds())
+                + (result.failures().isEmpty() ? "" : "\n\nFirst failures:\n" + String.join("\n", result.failures())));
+    }
+
+    /** Every row returned its {@code expected_status}, or a 2xx where the row names none. */
+    @Then("every dataset row should have the expected status")
+    public void verifyAllRows() {
+        assertEquals(0, result.failed(), result.failed() + " of " + result.rows() + " rows failed "
+                + result.statusCounts() + "; first failures:\n" + String.join("\n", result.failures()));
+    }
+
+    @Then("the dataset should have {int} rows with status {int}")
+    public void verifyStatusCount(int rows, int status) {
+        assertEquals(rows, result.statusCounts().getOrDefault(status, 0L).intValue(),
+                "Rows with status " + status + "; all status counts " + result.statusCounts());
+    }
+}
@@ -1,51 +1,223 @@
 package stepdefs;
 
-import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.gherkin.model.Feature;
+import com.aventstack.extentreports.gherkin.model.Then;
+import com.aventstack.extentreports.service.ExtentService;
 import io.cucumber.java.*;
+import perf.LiveMetrics;
+import perf.PerfGate;
+import perf.RequestTimings;
+import utils.BookDataGenerator;
+import utils.CatalogSeeder;
+import utils.ConfigReader;
+import utils.HttpCacheFilter;
+import utils.HttpClients;
+import utils.ReportQueue;
+import utils.RequestLog;
+import utils.Resilience;
+import utils.ScenarioContext;
+import utils.TestPayloads;
+import utils.TimingFilter;
 import utils.TokenManager;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
 public class Hooks {
 
+    // Extent entry grouping the run-level performance results (only touched from @AfterAll)
+    private static ExtentTest performanceFeature;
+    // Catalog seeding result from @BeforeAll, published with the other run-level results
+    private static CatalogSeeder.Report seeding;
+
     /**
-     * Logs a message to the Extent report.
-     * If the ExtentCucumberAdapter is not initialized, it will quietly ignore the error.
+     * Logs a message to the Extent report through the asynchronous {@link ReportQueue}.
+     * If the ExtentCucumberAdapter is not initialized, the message is quietly dropped.
      *
      * @param message The message to log
      */
     private static void logToExtent(String message) {
-        try {
-            ExtentCucumberAdapter.addTestStepLog(message);
-        } catch (Throwable ignored) {
-            // Adapter may not be initialized at the very first hook; ignore quietly
-        }
+        ReportQueue.step(message);
     }
 
     /**
      * This method is called once before all scenarios in the test suite.
-     * It prewarms the TokenManager to ensure a valid token is available for all tests.
+     * It loads the testData payloads, starts the live metrics endpoint (metrics.enabled), prewarms the TokenManager to ensure a valid token is
+     * available for all tests and seeds the catalog (seed.books) that scenarios pick ids from.
      */
     @BeforeAll
     public static void beforeAll() {
+        System.out.println("[Data] Loaded " + TestPayloads.preload() + " test payloads; book generator seed="
+                + BookDataGenerator.shared().seed() + " (replay with -Ddata.seed)");
+        LiveMetrics.start(ConfigReader.defaults());
         TokenManager.prewarm();
+        seeding = CatalogSeeder.seed(ConfigReader.defaults());
+        if (seeding != null) {
+            System.out.println("[Seed] " + seeding + "\n" + seeding.latency().formatTable(seeding.seconds()));
+        }
+    }
+
+    /**
+     * This method is called once after all scenarios have finished.
+     * It writes the per-endpoint latency baseline to target/perf, attaches it to the Extent report
+     * and, when perf.gate.enabled=true, fails the run if an endpoint regressed against the baseline.
+     * Seeded books are deleted first.
+     */
+    @AfterAll
+    public static void afterAll() throws IOException {
+        CatalogSeeder.Report teardown = CatalogSeeder.teardown(ConfigReader.defaults());
+        if (teardown != null) {
+            System.out.println("[Seed] " + teardown + "\n" + teardown.latency().formatTable(teardown.seconds()));
+        }
+        publishSeeding(seeding, teardown);
+        System.out.println("[Auth] " + TokenManager.stats());
+        System.out.println("[HTTP] " + HttpClients.stats());
+        publishRetries(Resilience.shared());
+        publishHttpCache(HttpCacheFilter.stats());
+        LiveMetrics.stop(ConfigReader.defaults());
+        ReportQueue.drain(30_000);
+        System.out.println("[Report] " + ReportQueue.stats());
+        if (RequestTimings.total().totalCount() == 0) {
+            return;
+        }
+        String summary = RequestTimings.formatSummary();
+        System.out.println("[Perf] Request latency\n" + summary);
+        try {
+            List<Path> files = RequestTimings.write(Path.of("target", "perf"));
+            System.out.println("[Perf] Written " + files);
+            ExtentTest test = performanceNode("Request latency baseline");
+            test.info("<pre>" + summary + "</pre>");
+            for (Path file : files) {
+                test.info("<a href='perf/" + file.getFileName() + "'>" + file.getFileName() + "</a>");
+            }
+        } catch (Throwable t) {
+            System.out.println("[Perf] Could not publish latency report: " + t.getMessage());
+        }
+
+        ConfigReader cfg = ConfigReader.defaults();
+        if (cfg.getBoolean("perf.gate.enabled", false)) {
+            checkPerfGate(PerfGate.fromConfig(cfg));
+        }
+    }
+
+    /**
+     * Adds a feature/scenario/step entry for a run-level performance result and returns the step;
+     * the Extent PDF reporter rejects entries without that Gherkin shape.
+     */
+    private static ExtentTest performanceNode(String name) {
+        if (performanceFeature == null) {
+            performanceFeature = ExtentService.getInstance().createTest(Feature.class, "Performance");
+        }
+        return performanceFeature
+                .createNode(com.aventstack.extentreports.gherkin.model.Scenario.class, name)
+                .createNode(Then.class, name);
+    }
+
+    private static void publishRetries(Resilience resilience) {
+        if (!resilience.anyActivity()) {
+            return;
+        }
+        String table = resilience.formatTable();
+        System.out.println("[Retry] Retries and circuit breakers\n" + table);
+        try {
+            performanceNode("Retries and circuit breakers").warning("<pre>" + table + "</pre>");
+        } catch (Throwable ignored) {
+            // Extent not initialized; the console lines are enough
+        }
+    }
+
+    private static void publishHttpCache(HttpCacheFilter.Stats stats) {
+        if (stats.lookups() == 0) {
+            return;
+        }
+        System.out.println("[Cache] " + stats);
+        try {
+            performanceNode("HTTP cache").info("<pre>" + stats.toString().replace(", ", "\n") + "</pre>");
+        } catch (Throwable ignored) {
+            // Extent not initialized; the console line is enough
+        }
+    }
+
+    private static void publishSeeding(CatalogSeeder.Report... reports) {
+        try {
+            for (CatalogSeeder.Report report : reports) {
+                if (report == null) {
+                    continue;
+                }
+                String html = "<pre>" + report + "\n" + report.latency().formatTable(report.seconds()) + "</pre>";
+                ExtentTest test = performanceNode("Catalog " + (report == seeding ? "seeding" : "teardown"));
+                if (report.failed() > 0) {
+                    test.warning(html);
+                } else {
+                    test.pass(html);
+                }
+            }
+        } catch (Throwable ignored) {
+            // Extent not initialized; the console lines are enough
+        }
+    }
+
+    private static void checkPerfGate(PerfGate gate) throws IOException {
+        if (!gate.hasBaseline()) {
+            // Enabled but nothing to compare with: say so loudly instead of passing silently
+            String warning = "WARN: perf.gate.enabled=true but there is no baseline at " + gate.baseline()
+                    + "; regression gate skipped";
+            System.out.println("[Perf] " + warning);
+            try {
+                performanceNode("Regression gate").warning(warning);
+            } catch (Throwable ignored) {
+                // Extent not initialized; the console line is enough
+            }
+            return;
+        }
+        List<PerfGate.Result> results = gate.evaluate(RequestTimings.total());
+        String table = gate.formatTable(results);
+        boolean regressed = PerfGate.hasRegression(results);
+        System.out.println("[Perf] Regression gate vs " + gate.baseline() + "\n" + table);
+        try {
+            ExtentTest test = performanceNode("Regression gate");
+            String html = "<pre>" + table + "</pre>";
+            if (regressed) {
+                test.fail(html);
+            } else {
+                test.pass(html);
+            }
+        } catch (Throwable ignored) {
+            // Extent not initialized; the console table is enough
+        }
+        if (regressed) {
+            throw new AssertionError("Performance regression against " + gate.baseline() + ":\n" + table);
+        }
     }
 
     /**
      * This method is called before any scenario starts.
-     * It initializes the Extent report and logs the start of the test suite.
+     * It binds a fresh ScenarioContext to the worker thread and logs the start of the scenario.
      */
     @Before
     public void beforeScenario(Scenario scenario) {
+        ScenarioContext.begin(scenario.getName(), scenario.getUri() + ":" + scenario.getLine());
+        LiveMetrics.scenarioStarted();
         logToExtent("🚀 Starting scenario: " + scenario.getName());
     }
 
     /**
      * This method is called after each scenario finishes.
-     * It logs the status of the scenario to the Extent report.
+     * It logs the status of the scenario to the Extent report, preceded by the requests that
+     * the logging policy held back if the scenario failed.
      */
     @After
     public void afterScenario(Scenario scenario) {
+        TimingFilter.finishStream(); // a streamed body no step got to read
+        if (scenario.isFailed()) {
+            RequestLog.flushFailed(ScenarioContext.current(), ReportQueue::log);
+        }
         String status = scenario.isFailed() ? "❌ FAILED" : "✅ PASSED";
         logToExtent("🏁 Finished scenario: " + scenario.getName() + " - Status: " + status);
+        LiveMetrics.scenarioFinished(scenario.getStatus().name());
+        ScenarioContext.end();
     }
 
     /**
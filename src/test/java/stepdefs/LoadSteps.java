@@ -0,0 +1,132 @@
+package stepdefs;
+
+import io.cucumber.datatable.DataTable;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import perf.LatencyStats;
+import perf.LoadProfile;
+import perf.LoadRunner;
+import perf.OpenLoadRunner;
+import perf.StepReplayer;
+import utils.ConfigReader;
+import utils.ReportQueue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load-generation steps: replay existing step texts as a throughput benchmark.
+ * Users, rate and duration in the feature can be overridden with
+ * {@code -Dload.users}, {@code -Dload.rate} and {@code -Dload.duration}; open-model rates are
+ * multiplied by {@code -Dload.rate.scale} and served by {@code load.open.workers} threads.
+ */
+public class LoadSteps {
+    private static final ConfigReader CONFIG = ConfigReader.defaults();
+    private static final StepReplayer REPLAYER = new StepReplayer(BookstoreSteps.class);
+
+    private LatencyStats stats;
+
+    private static void logSafe(String message) {
+        ReportQueue.step("<pre>" + message + "</pre>");
+        ReportQueue.console(message);
+    }
+
+    /**
+     * Runs the weighted step mix given in the table (columns: step, weight, optional status).
+     *
+     * @param users   virtual users (threads)
+     * @param rate    target total requests per second across all users
+     * @param seconds run duration
+     */
+    @When("I run a load of {int} virtual users at {int} requests per second for {int} seconds with:")
+    public void runLoad(int users, int rate, int seconds, DataTable table) throws InterruptedException {
+        List<LoadRunner.Operation> mix = new ArrayList<>();
+        for (Map<String, String> row : table.asMaps()) {
+            String weight = row.get("weight");
+            String status = row.get("status");
+            mix.add(new LoadRunner.Operation(
+                    row.get("step"),
+                    weight == null || weight.isBlank() ? 1.0 : Double.parseDouble(weight),
+                    status == null || status.isBlank() ? null : Integer.valueOf(status.trim())));
+        }
+
+        int u = CONFIG.getInt("load.users", users);
+        double r = CONFIG.getDouble("load.rate", rate);
+        int s = CONFIG.getInt("load.duration", seconds);
+        logSafe("🔥 Load: " + u + " users, " + r + " req/s target, " + s + "s, " + mix.size() + " operations");
+
+        long t0 = System.nanoTime();
+        stats = new LoadRunner(mix, u, r, Duration.ofSeconds(s)).run(BookstoreSteps::new, REPLAYER);
+        double elapsed = (System.nanoTime() - t0) / 1e9;
+
+        logSafe("📊 Load results\n" + stats.formatTable(elapsed));
+    }
+
+    /**
+     * Open-model run at a constant rate per operation (table columns: step, rate, optional status).
+     * Latency is measured from each request's scheduled send time; see {@link OpenLoadRunner}.
+     */
+    @When("I run an open-model load for {int} seconds with:")
+    public void runOpenLoad(int seconds, DataTable table) throws InterruptedException {
+        int s = CONFIG.getInt("load.duration", seconds);
+        runOpen(LoadProfile.constant(s), table);
+    }
+
+    /** Open-model run whose rates ramp linearly from zero to the table rates, then hold. */
+    @When("I run an open-model load for {int} seconds ramping up over {int} seconds with:")
+    public void runOpenLoadRamp(int seconds, int rampSeconds, DataTable table) throws InterruptedException {
+        int s = CONFIG.getInt("load.duration", seconds);
+        runOpen(LoadProfile.rampUp(s, rampSeconds), table);
+    }
+
+    /** Open-model run in equal steps at 1/n, 2/n, … of the table rates. */
+    @When("I run an open-model load for {int} seconds in {int} steps with:")
+    public void runOpenLoadSteps(int seconds, int steps, DataTable table) throws InterruptedException {
+        int s = CONFIG.getInt("load.duration", seconds);
+        runOpen(LoadProfile.steps(s, steps), table);
+    }
+
+    private void runOpen(LoadProfile profile, DataTable table) throws InterruptedException {
+        double scale = CONFIG.getDouble("load.rate.scale", 1.0);
+        List<OpenLoadRunner.Operation> mix = new ArrayList<>();
+        double expected = 0;
+        for (Map<String, String> row : table.asMaps()) {
+            String status = row.get("status");
+            double rate = Double.parseDouble(row.get("rate").trim()) * scale;
+            mix.add(new OpenLoadRunner.Operation(row.get("step"), rate,
+                    status == null || status.isBlank() ? null : Integer.valueOf(status.trim())));
+            expected += profile.expectedArrivals(rate);
+        }
+        int workers = CONFIG.getInt("load.open.workers", 64);
+        logSafe("🔥 Open-model load: " + profile + ", " + mix.size() + " operations, ~" + Math.round(expected)
+                + " requests, " + workers + " workers");
+
+        OpenLoadRunner.Result result = new OpenLoadRunner(mix, profile, workers).run(BookstoreSteps::new, REPLAYER);
+        stats = result.latency();
+
+        logSafe("📊 Latency from intended send time\n" + result.latency().formatTable(result.elapsedSeconds())
+                + "\n\n⏱ Service time (from actual send)\n" + result.serviceTime().formatTable(result.elapsedSeconds())
+                + String.format("%n%nScheduled %d requests (%d unfinished); max queued %d, max dispatch lag %.2f ms",
+                result.scheduled(), result.unfinished(), result.maxQueueDepth(), result.maxLateMillis()));
+    }
+
+    /** Checks a latency percentile of every endpoint of the last load run. */
+    @Then("the load p{int} latency should be below {int} ms")
+    public void verifyLoadPercentile(int percentile, int maxMillis) {
+        stats.entries().forEach((endpoint, e) -> {
+            double actual = e.percentileMillis(percentile);
+            assertTrue(actual < maxMillis, String.format("%s p%d is %.1f ms, limit %d ms",
+                    endpoint, percentile, actual, maxMillis));
+        });
+    }
+
+    @Then("the load error rate should be below {int} percent")
+    public void verifyErrorRate(int maxPercent) {
+        double actual = stats.errorRate() * 100;
+        assertTrue(actual < maxPercent, String.format("Error rate %.2f%% exceeds %d%%", actual, maxPercent));
+    }
+}
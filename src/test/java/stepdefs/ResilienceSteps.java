@@ -0,0 +1,118 @@
+package stepdefs;
+
+import com.sun.net.httpserver.HttpServer;
+import io.cucumber.java.After;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import io.restassured.response.Response;
+import utils.AuthRetryFilter;
+import utils.ConfigReader;
+import utils.Resilience;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Breaker transitions of {@link AuthRetryFilter} with a {@link Resilience} of its own, against a
+ * local server that answers each request with the next queued status. The checks don't depend on
+ * the API under test; only the token refresh after a 401 logs in for real.
+ */
+public class ResilienceSteps {
+    private static final String PATH = "/breaker-check";
+    private static final String QUERY = "probe=1";
+    private static final long OPEN_MILLIS = 100;
+
+    private final BlockingQueue<Integer> answers = new LinkedBlockingQueue<>();
+    private final AtomicInteger answered = new AtomicInteger();
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private Resilience resilience;
+    private Response replayed;
+
+    private Response send() {
+        return given().baseUri("http://127.0.0.1:" + server.getAddress().getPort())
+                .filter(new AuthRetryFilter(resilience))
+                .queryParam("probe", 1)
+                .get(PATH);
+    }
+
+    private Resilience.State state() {
+        return resilience.stats().get("GET " + PATH).state();
+    }
+
+    @After
+    public void stopServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Given("an endpoint whose circuit was opened by {int} responses")
+    public void openCircuit(int status) throws IOException, InterruptedException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(PATH, exchange -> {
+            Integer next = answers.poll();
+            answered.incrementAndGet();
+            received.add(exchange.getRequestURI().getRawQuery() + " " + exchange.getRequestHeaders().getFirst("Authorization"));
+            exchange.sendResponseHeaders(next != null ? next : 500, -1);
+            exchange.close();
+        });
+        server.start();
+
+        Properties settings = new Properties();
+        settings.setProperty("retry.max.attempts", "0");
+        settings.setProperty("breaker.window", "4");
+        settings.setProperty("breaker.min.calls", "4");
+        settings.setProperty("breaker.open.ms", String.valueOf(OPEN_MILLIS));
+        resilience = new Resilience(new ConfigReader(settings));
+        for (int i = 0; i < 4; i++) {
+            answers.add(status);
+            send();
+        }
+        assertEquals(Resilience.State.OPEN, state(), "Circuit should open after 4 failed calls");
+        Thread.sleep(OPEN_MILLIS + 50);
+    }
+
+    /** The half-open probe is rejected with a 401; the filter refreshes the token and replays it. */
+    @When("the half-open probe gets a 401 and the replay a {int}")
+    public void probeWithExpiredToken(int status) {
+        answers.add(401);
+        answers.add(status);
+        int before = answered.get();
+        replayed = send();
+        assertEquals(before + 2, answered.get(), "The probe and its replay should both be sent");
+        String probe = received.get(before);
+        String replay = received.get(before + 1);
+        assertEquals(QUERY, replay.substring(0, replay.indexOf(' ')), "The replay should be the same request");
+        assertNotEquals(probe, replay, "The replay should carry the refreshed token");
+    }
+
+    @Then("the replayed request should return {int}")
+    public void verifyReplayStatus(int status) {
+        assertEquals(status, replayed.getStatusCode());
+    }
+
+    @Then("the endpoint's circuit should be {word}")
+    public void verifyState(String expected) {
+        assertEquals(Resilience.State.valueOf(expected.toUpperCase()), state());
+    }
+
+    @Then("the next request to the endpoint should be sent")
+    public void verifyNextRequestSent() {
+        answers.add(200);
+        int before = answered.get();
+        assertEquals(200, send().getStatusCode());
+        assertEquals(before + 1, answered.get(), "The request should reach the server, not fail fast");
+    }
+}
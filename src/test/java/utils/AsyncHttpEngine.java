@@ -0,0 +1,202 @@
+package utils;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import perf.Endpoints;
+import perf.LiveMetrics;
+import perf.RequestTimings;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking engine on {@code java.net.http.HttpClient#sendAsync}: requests wait on the client's
+ * selector instead of a thread each, so thousands can be in flight on {@code engine.async.threads}
+ * platform threads. At most {@code engine.async.max.in.flight} are outstanding; beyond that the
+ * caller blocks until one completes.
+ *
+ * <p>Mirrors {@link AuthRetryFilter} (bearer token of the caller's identity, one retry after 401,
+ * {@link Resilience} backoff and circuit breaking, with waits scheduled rather than slept) and
+ * {@link TimingFilter} (latency and time-to-first-byte per endpoint template).
+ */
+public final class AsyncHttpEngine implements RequestEngine {
+
+    private static volatile AsyncHttpEngine shared;
+
+    private final HttpClient client;
+    private final String baseUri;
+    private final Duration requestTimeout;
+    private final Semaphore inFlight;
+    private final Executor executor;
+    private final Resilience resilience = Resilience.shared();
+
+    private AsyncHttpEngine(ConfigReader cfg) {
+        AtomicInteger ids = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(cfg.getInt("engine.async.threads", 4), r -> {
+            Thread t = new Thread(r, "async-engine-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(cfg.getInt("http.connect.timeout.ms", 5_000)))
+                .executor(executor)
+                .build();
+        String base = cfg.baseUri();
+        this.baseUri = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.requestTimeout = Duration.ofMillis(cfg.getInt("http.read.timeout.ms", 30_000));
+        this.inFlight = new Semaphore(cfg.getInt("engine.async.max.in.flight", 2048));
+    }
+
+    public static AsyncHttpEngine shared() {
+        AsyncHttpEngine engine = shared;
+        if (engine == null) {
+            synchronized (AsyncHttpEngine.class) {
+                engine = shared;
+                if (engine == null) {
+                    engine = new AsyncHttpEngine(ConfigReader.defaults());
+                    shared = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    @Override
+    public CompletableFuture<Response> sendAsync(String method, String endpoint, String body, Map<String, String> headers) {
+        // Resolve identity and token on the caller thread; completions run on pool threads
+        TokenManager.Session session = TokenManager.currentSession();
+        Call call = new Call(method, endpoint, body, headers, session, Endpoints.template(method, endpoint));
+
+        inFlight.acquireUninterruptibly();
+        CompletableFuture<Response> result;
+        try {
+            result = exchange(call, session.getToken(), 0, false, true);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        return result.whenComplete((response, error) -> inFlight.release());
+    }
+
+    private record Call(String method, String endpoint, String body, Map<String, String> headers,
+                        TokenManager.Session session, String key) {}
+
+    /** One attempt plus whatever follows it: a token refresh after 401, or a backed-off retry. */
+    private CompletableFuture<Response> exchange(Call call, String token, int attempt, boolean refreshed,
+                                                 boolean first) {
+        try {
+            resilience.beforeAttempt(call.key(), first);
+        } catch (Resilience.CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return attempt(call, token).handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                Duration wait = resilience.onOutcome(call.key(), call.method(), -1, null, cause, attempt);
+                return wait == null
+                        ? CompletableFuture.<Response>failedFuture(cause)
+                        : later(wait, () -> exchange(call, token, attempt + 1, refreshed, false));
+            }
+            if (response.getStatusCode() == 401 && !refreshed) {
+                System.out.println("[Auth] 401 received, refreshing token and retrying once...");
+                return CompletableFuture
+                        .supplyAsync(() -> call.session().forceRefresh(token), executor)
+                        .thenCompose(fresh -> {
+                            TokenManager.recordUnauthorizedRetry();
+                            return exchange(call, fresh, attempt, true, false);
+                        });
+            }
+            Duration wait = resilience.onOutcome(call.key(), call.method(), response.getStatusCode(),
+                    response.getHeader("Retry-After"), null, attempt);
+            return wait == null
+                    ? CompletableFuture.completedFuture(response)
+                    : later(wait, () -> exchange(call, token, attempt + 1, refreshed, false));
+        }).thenCompose(next -> next);
+    }
+
+    /** Runs {@code next} after {@code wait} without holding a thread in the meantime. */
+    private CompletableFuture<Response> later(Duration wait, Supplier<CompletableFuture<Response>> next) {
+        return CompletableFuture
+                .supplyAsync(next, CompletableFuture.delayedExecutor(wait.toMillis(), TimeUnit.MILLISECONDS, executor))
+                .thenCompose(f -> f);
+    }
+
+    private CompletableFuture<Response> attempt(Call call, String token) {
+        String method = call.method();
+        String endpoint = call.endpoint();
+        String body = call.body();
+        String key = call.key();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUri + endpoint))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + token);
+        call.headers().forEach((name, value) -> {
+            if (!"Authorization".equalsIgnoreCase(name)) {
+                request.header(name, value);
+            }
+        });
+        HttpRequest.BodyPublisher publisher = body != null && !body.trim().isEmpty()
+                ? HttpRequest.BodyPublishers.ofString(body)
+                : HttpRequest.BodyPublishers.noBody();
+        switch (method.toUpperCase()) {
+            case "GET" -> request.GET();
+            case "POST" -> request.POST(publisher);
+            case "PUT" -> request.PUT(publisher);
+            case "DELETE" -> request.DELETE();
+            default -> throw new IllegalArgumentException("Unsupported method: " + method);
+        }
+
+        LiveMetrics.requestStarted();
+        long start = System.nanoTime();
+        long[] headersAt = {-1};
+        HttpResponse.BodyHandler<byte[]> handler = info -> {
+            // Invoked once status line and headers are in, before the body is read
+            headersAt[0] = System.nanoTime();
+            return HttpResponse.BodySubscribers.ofByteArray();
+        };
+        return client.sendAsync(request.build(), handler)
+                .handle((response, error) -> {
+                    long total = System.nanoTime() - start;
+                    long firstByte = headersAt[0] > 0 ? headersAt[0] - start : -1;
+                    if (error != null) {
+                        RequestTimings.record(key, total, firstByte, true);
+                        LiveMetrics.requestFinished(key, -1, total);
+                        throw error instanceof RuntimeException re ? re : new IllegalStateException(
+                                "Request failed: " + method + " " + endpoint, error);
+                    }
+                    RequestTimings.record(key, total, firstByte, response.statusCode() >= 500);
+                    LiveMetrics.requestFinished(key, response.statusCode(), total);
+                    return toRestAssured(response);
+                });
+    }
+
+    /** Wraps the JDK response so steps can keep using {@code jsonPath()} and friends. */
+    private static Response toRestAssured(HttpResponse<byte[]> response) {
+        List<Header> headers = new ArrayList<>();
+        response.headers().map().forEach((name, values) -> values.forEach(v -> headers.add(new Header(name, v))));
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(response.statusCode())
+                .setStatusLine("HTTP/1.1 " + response.statusCode())
+                .setHeaders(new Headers(headers))
+                .setBody(response.body());
+        response.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+        return builder.build();
+    }
+}
@@ -5,32 +5,123 @@ import io.restassured.filter.FilterContext;
 import io.restassured.response.Response;
 import io.restassured.specification.FilterableRequestSpecification;
 import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+import perf.Endpoints;
 
+import java.time.Duration;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Attaches the bearer token, replays once with a fresh token after a 401, and applies the
+ * {@link Resilience} policy: backoff-and-retry of transient failures within the endpoint's retry
+ * budget, and fail-fast while the endpoint's circuit is open.
+ */
 public class AuthRetryFilter implements Filter {
 
+    private final Resilience resilience;
+
+    public AuthRetryFilter() {
+        this(Resilience.shared());
+    }
+
+    /** With its own policy instead of the run-wide one, e.g. to check breaker transitions in isolation. */
+    public AuthRetryFilter(Resilience resilience) {
+        this.resilience = resilience;
+    }
+
     @Override
     public Response filter(FilterableRequestSpecification req,
                            FilterableResponseSpecification res,
                            FilterContext ctx) {
 
         // Attach/refresh the Authorization header
+        TokenManager.Session session = TokenManager.currentSession();
+        String token = session.getToken();
         req.removeHeader("Authorization");
-        req.header("Authorization", "Bearer " + TokenManager.getToken());
+        req.header("Authorization", "Bearer " + token);
+
+        String method = req.getMethod();
+        String endpoint = Endpoints.template(method, req.getUserDefinedPath());
+        boolean refreshed = false;
+        int attempt = 0;
+        boolean first = true;
+        boolean replay = false;
 
-        // First attempt
-        Response response = ctx.next(req, res);
+        while (true) {
+            // The 401 replay is the same logical attempt: it already passed the breaker (possibly as
+            // the half-open probe), and its outcome is what gets recorded
+            if (!replay) {
+                resilience.beforeAttempt(endpoint, first);
+            }
+            first = false;
+            replay = false;
 
-        // If unauthorized, refresh and retry once
-        if (response.getStatusCode() == 401) {
-            System.out.println("[Auth] 401 received, refreshing token and retrying once...");
-            TokenManager.forceRefresh();
+            Response response;
+            try {
+                response = attempt == 0 && !refreshed ? ctx.next(req, res) : resend(req);
+            } catch (Exception e) {
+                Duration wait = resilience.onOutcome(endpoint, method, -1, null, e, attempt);
+                if (wait == null) {
+                    throw e;
+                }
+                pause(endpoint, "error " + e.getClass().getSimpleName(), ++attempt, wait);
+                continue;
+            }
 
-            req.removeHeader("Authorization");
-            req.header("Authorization", "Bearer " + TokenManager.getToken());
+            // If unauthorized, refresh and retry once; this doesn't count as a transient-failure retry
+            if (response.getStatusCode() == 401 && !refreshed) {
+                System.out.println("[Auth] 401 received, refreshing token and retrying once...");
+                // Concurrent 401s on the same token share a single login
+                String fresh = session.forceRefresh(token);
+                TokenManager.recordUnauthorizedRetry();
+                refreshed = true;
+                response.asByteArray();
 
-            response = ctx.next(req, res);
+                req.removeHeader("Authorization");
+                req.header("Authorization", "Bearer " + fresh);
+                replay = true;
+                continue;
+            }
+
+            Duration wait = resilience.onOutcome(endpoint, method, response.getStatusCode(),
+                    response.getHeader("Retry-After"), null, attempt);
+            if (wait == null) {
+                return response;
+            }
+            // Release the pooled connection of the response we are discarding
+            response.asByteArray();
+            pause(endpoint, "HTTP " + response.getStatusCode(), ++attempt, wait);
         }
+    }
 
-        return response;
+    /**
+     * Sends {@code req} again through the filters registered after this one. {@code ctx.next} can't
+     * be used for that: the filter chain is an iterator, and once it has run it returns null.
+     */
+    private Response resend(FilterableRequestSpecification req) {
+        List<Filter> filters = req.getDefinedFilters();
+        List<Filter> inner = filters.subList(filters.indexOf(this) + 1, filters.size());
+        RequestSpecification again = given().spec(req).noFilters();
+        if (!inner.isEmpty()) {
+            again.filters(inner);
+        }
+        return again.request(req.getMethod(), req.getDerivedPath());
+    }
+
+    private static void pause(String endpoint, String reason, int attempt, Duration wait) {
+        // Async workers, sweeps and the seeder have no scenario; don't open one just to read a flag
+        ScenarioContext ctx = ScenarioContext.peek();
+        if (ctx != null && ctx.isVerbose()) {
+            System.out.println("[Retry] " + endpoint + " got " + reason + ", retry " + attempt
+                    + " in " + wait.toMillis() + " ms");
+        }
+        try {
+            Thread.sleep(wait.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off " + endpoint, e);
+        }
     }
 }
@@ -1,21 +1,239 @@
 package utils;
 
-import java.util.HashMap;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Random;
-import java.util.UUID;
+import java.util.SplittableRandom;
 
+/**
+ * Random book payloads, replayable with {@code -Ddata.seed=<seed>} (the seed is printed at suite
+ * start). Streams are derived from the seed and a logical key rather than handed out in first-use
+ * order, so a replay gives the same data however parallel scenarios land on threads: a scenario
+ * draws from a stream keyed by its id, {@link #bookJson(String)} from one keyed by the caller. Code
+ * running outside any scenario falls back to a per-thread split of the seed, which only replays
+ * single-threaded.
+ *
+ * <p>Field sizes come from config: {@code data.name.length}, {@code data.author.length} and
+ * {@code data.summary.length} are {@code min-max} ranges; {@code data.summary.long.percent} of the
+ * books get a summary from {@code data.summary.long.length} instead, and
+ * {@code data.unicode.percent} get a non-ASCII author. Bulk output is written straight to JSON with
+ * a {@link JsonGenerator}, without building a map per book.
+ */
 public class BookDataGenerator {
 
+    private static final String ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final String[] UNICODE_AUTHORS = {
+            "Gabriel García Márquez", "Fyodor Dostoyevsky (Фёдор Достоевский)", "Murakami Haruki (村上春樹)",
+            "Halldór Laxness", "Naguib Mahfouz (نجيب محفوظ)", "Wisława Szymborska", "Rabindranath Tagore (রবীন্দ্রনাথ)",
+            "Çağlar Öztürk", "Ōe Kenzaburō", "Zoë Brontë-Ødegård 📚"
+    };
+    private static final String[] WORDS = {
+            "a", "story", "about", "the", "journey", "of", "an", "unlikely", "hero", "through", "forgotten",
+            "kingdoms", "and", "quiet", "towns", "where", "every", "choice", "matters", "more", "than", "gold"
+    };
+
+    private static volatile BookDataGenerator shared;
+
+    private final long seed;
+    private final SplittableRandom root;
+    private final ThreadLocal<KeyedRandom> random = new ThreadLocal<>();
+    private final int[] nameLength;
+    private final int[] authorLength;
+    private final int[] summaryLength;
+    private final int[] longSummaryLength;
+    private final double longSummaryPercent;
+    private final double unicodePercent;
+    private final int minYear;
+    private final int maxYear;
+
+    public BookDataGenerator(long seed, ConfigReader cfg) {
+        this.seed = seed;
+        this.root = new SplittableRandom(seed);
+        this.nameLength = range(cfg, "data.name.length", "8-8");
+        this.authorLength = range(cfg, "data.author.length", "6-6");
+        this.summaryLength = range(cfg, "data.summary.length", "20-60");
+        this.longSummaryLength = range(cfg, "data.summary.long.length", "2000-8000");
+        this.longSummaryPercent = cfg.getDouble("data.summary.long.percent", 0);
+        this.unicodePercent = cfg.getDouble("data.unicode.percent", 0);
+        this.minYear = cfg.getInt("data.year.min", 1950);
+        this.maxYear = cfg.getInt("data.year.max", 2023);
+    }
+
+    /** The suite-wide generator, seeded from {@code data.seed} or, if unset, the clock. */
+    public static BookDataGenerator shared() {
+        BookDataGenerator g = shared;
+        if (g == null) {
+            synchronized (BookDataGenerator.class) {
+                g = shared;
+                if (g == null) {
+                    ConfigReader cfg = ConfigReader.defaults();
+                    g = new BookDataGenerator(cfg.getLong("data.seed", System.nanoTime()), cfg);
+                    shared = g;
+                }
+            }
+        }
+        return g;
+    }
+
     public static Map<String, Object> generateRandomBook() {
-        Random random = new Random();
+        return shared().nextBook();
+    }
 
-        Map<String, Object> book = new HashMap<>();
-        book.put("name", "Book-" + UUID.randomUUID().toString().substring(0, 8));
-        book.put("author", "Author-" + UUID.randomUUID().toString().substring(0, 6));
-        book.put("published_year", 1950 + random.nextInt(74)); // 1950–2023
-        book.put("book_summary", "This is a summary for " + UUID.randomUUID().toString().substring(0, 5));
+    public long seed() {
+        return seed;
+    }
 
+    public Map<String, Object> nextBook() {
+        SplittableRandom rnd = random();
+        Map<String, Object> book = new LinkedHashMap<>();
+        book.put("name", name(rnd));
+        book.put("author", author(rnd));
+        book.put("published_year", year(rnd));
+        book.put("book_summary", summary(rnd));
         return book;
     }
+
+    /** One book as a JSON document. */
+    public String nextBookJson() {
+        return bookJson(random());
+    }
+
+    /** The book for {@code key} (e.g. {@code "seed#3"}): the same for a given seed, whichever thread asks. */
+    public String bookJson(String key) {
+        return bookJson(stream(key));
+    }
+
+    private String bookJson(SplittableRandom rnd) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator gen = Json.MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            writeBook(gen, rnd);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /** Writes {@code count} books as one JSON array; {@code out} is flushed but not closed. */
+    public void writeJsonArray(OutputStream out, long count) throws IOException {
+        try (JsonGenerator gen = generator(out)) {
+            SplittableRandom rnd = random();
+            gen.writeStartArray();
+            for (long i = 0; i < count; i++) {
+                writeBook(gen, rnd);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /** Writes {@code count} books as newline-delimited JSON; {@code out} is flushed but not closed. */
+    public void writeNdjson(OutputStream out, long count) throws IOException {
+        try (JsonGenerator gen = generator(out)) {
+            gen.setRootValueSeparator(null);
+            SplittableRandom rnd = random();
+            for (long i = 0; i < count; i++) {
+                writeBook(gen, rnd);
+                gen.writeRaw('\n');
+            }
+        }
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        JsonGenerator gen = Json.MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return gen;
+    }
+
+    private void writeBook(JsonGenerator gen, SplittableRandom rnd) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("name", name(rnd));
+        gen.writeStringField("author", author(rnd));
+        gen.writeNumberField("published_year", year(rnd));
+        gen.writeStringField("book_summary", summary(rnd));
+        gen.writeEndObject();
+    }
+
+    private String name(SplittableRandom rnd) {
+        return "Book-" + alphanumeric(rnd, length(rnd, nameLength));
+    }
+
+    private String author(SplittableRandom rnd) {
+        if (percent(rnd, unicodePercent)) {
+            return UNICODE_AUTHORS[rnd.nextInt(UNICODE_AUTHORS.length)];
+        }
+        return "Author-" + alphanumeric(rnd, length(rnd, authorLength));
+    }
+
+    private int year(SplittableRandom rnd) {
+        return rnd.nextInt(minYear, maxYear + 1);
+    }
+
+    private String summary(SplittableRandom rnd) {
+        int length = length(rnd, percent(rnd, longSummaryPercent) ? longSummaryLength : summaryLength);
+        StringBuilder sb = new StringBuilder(length + 16).append("This is a summary for");
+        while (sb.length() < length) {
+            sb.append(' ').append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String alphanumeric(SplittableRandom rnd, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHANUMERIC.charAt(rnd.nextInt(ALPHANUMERIC.length()));
+        }
+        return new String(chars);
+    }
+
+    private static int length(SplittableRandom rnd, int[] range) {
+        return range[0] == range[1] ? range[0] : rnd.nextInt(range[0], range[1] + 1);
+    }
+
+    private static boolean percent(SplittableRandom rnd, double percent) {
+        return percent > 0 && rnd.nextDouble() * 100 < percent;
+    }
+
+    /** A stream and the scenario (or, outside one, the thread) it belongs to. */
+    private record KeyedRandom(Object owner, SplittableRandom rnd) {}
+
+    /** This scenario's stream, started from its id the first time it draws. */
+    private SplittableRandom random() {
+        ScenarioContext ctx = ScenarioContext.peek();
+        Object owner = ctx != null ? ctx : Thread.currentThread();
+        KeyedRandom current = random.get();
+        if (current == null || current.owner() != owner) {
+            current = new KeyedRandom(owner, ctx != null ? stream(ctx.getScenarioId()) : split());
+            random.set(current);
+        }
+        return current.rnd();
+    }
+
+    private SplittableRandom stream(String key) {
+        return new SplittableRandom(seed ^ key.hashCode());
+    }
+
+    private synchronized SplittableRandom split() {
+        return root.split();
+    }
+
+    private static int[] range(ConfigReader cfg, String key, String defaultValue) {
+        String value = cfg.get(key, defaultValue).trim();
+        String[] parts = value.split("-", 2);
+        try {
+            int min = Integer.parseInt(parts[0].trim());
+            int max = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : min;
+            if (min < 0 || max < min) {
+                throw new NumberFormatException();
+            }
+            return new int[]{min, max};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be <min>-<max> or a single length: " + value);
+        }
+    }
 }
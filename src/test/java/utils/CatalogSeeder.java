@@ -0,0 +1,250 @@
+package utils;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import perf.LatencyStats;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Creates a catalog of {@code seed.books} books through {@code POST /books/} before the suite and
+ * deletes it again afterwards, both on {@code seed.parallelism} threads. Failed deletes (I/O errors,
+ * 401, 429, 5xx) are retried up to {@code seed.retries} times with exponential backoff and jitter
+ * starting at {@code seed.backoff.ms}. A create is not idempotent, so it is only repeated when the
+ * server can't have applied it: a refused connection or a 429, as in {@link Resilience}.
+ *
+ * <p>Scenarios use the created ids through {@link #anyId()} (shared, read/update) and
+ * {@link #takeId()} (exclusive, e.g. delete). The two draw from separate sets: the first
+ * {@code seed.reserved} seeded books, plus books {@link #adopt}ed from scenarios, are only handed out
+ * by {@link #takeId()}, so a parallel scenario never reads or updates a book another one deletes.
+ * Seeding bypasses {@link TimingFilter}, so its writes don't skew the per-endpoint baseline; it is
+ * reported on its own as a write benchmark.
+ */
+public final class CatalogSeeder {
+
+    /** Outcome of one seeding or teardown phase. */
+    public record Report(String phase, int requested, int succeeded, long retries, int threads,
+                         double seconds, LatencyStats latency) {
+        public int failed() {
+            return requested - succeeded;
+        }
+
+        public double perSecond() {
+            return seconds > 0 ? succeeded / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %d/%d books in %.2fs (%.1f books/s, %d threads, %d retries, %d failed)",
+                    phase, succeeded, requested, seconds, perSecond(), threads, retries, failed());
+        }
+    }
+
+    private static final String BOOKS = "/books/";
+    // Shared ids for anyId() and reserved ones for takeId(), both guarded by IDS
+    private static final List<Integer> IDS = new ArrayList<>();
+    private static final List<Integer> RESERVED = new ArrayList<>();
+
+    private CatalogSeeder() {}
+
+    /** Number of seeded books still available, shared and reserved. */
+    public static int size() {
+        synchronized (IDS) {
+            return IDS.size() + RESERVED.size();
+        }
+    }
+
+    /** A random shared book id; the book stays in the pool for other scenarios and is never deleted by one. */
+    public static int anyId() {
+        synchronized (IDS) {
+            if (IDS.isEmpty()) {
+                throw new IllegalStateException("No seeded books available; run with -Dseed.books=<n> larger than seed.reserved");
+            }
+            return IDS.get(ThreadLocalRandom.current().nextInt(IDS.size()));
+        }
+    }
+
+    /** Takes a reserved book id, which no other scenario gets (e.g. before deleting it). */
+    public static int takeId() {
+        synchronized (IDS) {
+            if (RESERVED.isEmpty()) {
+                throw new IllegalStateException("No reserved books left to take; raise -Dseed.reserved (and seed.books)");
+            }
+            return RESERVED.remove(RESERVED.size() - 1);
+        }
+    }
+
+    /** Adds a book created elsewhere (e.g. a dataset sweep) to the reserved set, so teardown deletes it too. */
+    public static void adopt(int id) {
+        synchronized (IDS) {
+            RESERVED.add(id);
+        }
+    }
+
+    /**
+     * Creates the configured number of books; the first {@code seed.reserved} go to {@link #takeId()}.
+     *
+     * @return the report, or null when {@code seed.books} is 0
+     */
+    public static Report seed(ConfigReader cfg) {
+        int count = cfg.getInt("seed.books", 0);
+        if (count <= 0) {
+            return null;
+        }
+        int reserved = cfg.getInt("seed.reserved", 0);
+        List<Integer> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(i);
+        }
+        String base = cfg.baseUri();
+        return run(cfg, "Seeded", "POST " + BOOKS, requests, false, false, i -> {
+            Response r = authorized(base).body(BookDataGenerator.shared().bookJson("seed#" + i)).post(BOOKS);
+            if (r.getStatusCode() < 300) {
+                Object id = Json.read(r.asString(), Map.class).get("id");
+                if (!(id instanceof Number n)) {
+                    throw new IllegalStateException("POST " + BOOKS + " returned no id: " + r.asString());
+                }
+                synchronized (IDS) {
+                    (i < reserved ? RESERVED : IDS).add(n.intValue());
+                }
+            }
+            return r;
+        });
+    }
+
+    /**
+     * Deletes every seeded book that is still in the pool; a 404 counts as already gone.
+     *
+     * @return the report, or null when nothing was seeded or {@code seed.cleanup=false}
+     */
+    public static Report teardown(ConfigReader cfg) {
+        List<Integer> ids;
+        synchronized (IDS) {
+            ids = new ArrayList<>(IDS);
+            ids.addAll(RESERVED);
+            IDS.clear();
+            RESERVED.clear();
+        }
+        if (ids.isEmpty() || !cfg.getBoolean("seed.cleanup", true)) {
+            return null;
+        }
+        String base = cfg.baseUri();
+        return run(cfg, "Deleted", "DELETE " + BOOKS + "{id}", ids, true, true,
+                id -> authorized(base).delete(BOOKS + id));
+    }
+
+    /**
+     * Runs {@code call} for every item on a bounded pool, retrying transient failures.
+     *
+     * @param notFoundOk treat 404 as success (teardown of books a scenario already deleted)
+     * @param idempotent  repeating {@code call} is harmless; if not, only refused connections and
+     *                    429s are retried
+     */
+    private static Report run(ConfigReader cfg, String phase, String key, List<Integer> items,
+                              boolean notFoundOk, boolean idempotent, Function<Integer, Response> call) {
+        int threads = Math.max(1, Math.min(items.size(), cfg.getInt("seed.parallelism", 8)));
+        int maxRetries = cfg.getInt("seed.retries", 3);
+        long backoffMillis = cfg.getLong("seed.backoff.ms", 100);
+
+        LatencyStats latency = new LatencyStats();
+        LongAdder retries = new LongAdder();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger reportedFailures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "catalog-seeder");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(items.size());
+            for (Integer item : items) {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    String problem = null;
+                    for (int attempt = 0; attempt <= maxRetries; attempt++) {
+                        if (attempt > 0) {
+                            retries.increment();
+                            sleep(backoff(backoffMillis, attempt));
+                        }
+                        long t0 = System.nanoTime();
+                        try {
+                            Response r = call.apply(item);
+                            // Read the body so the pooled connection is released (no TimingFilter here)
+                            r.asByteArray();
+                            int code = r.getStatusCode();
+                            boolean ok = code < 300 || (code == 404 && notFoundOk);
+                            latency.record(key, System.nanoTime() - t0, !ok);
+                            if (ok) {
+                                succeeded.incrementAndGet();
+                                return;
+                            }
+                            problem = "HTTP " + code;
+                            if (code == 401 && idempotent) {
+                                TokenManager.forceRefresh();
+                            } else if (code != 429 && (!idempotent || code < 500)) {
+                                break;
+                            }
+                        } catch (RuntimeException e) {
+                            latency.record(key, System.nanoTime() - t0, true);
+                            problem = e.getMessage();
+                            // Also covers a 2xx without an id: the book may exist, so don't create another
+                            if (!idempotent && !(rootCause(e) instanceof ConnectException)) {
+                                break;
+                            }
+                        }
+                    }
+                    if (reportedFailures.getAndIncrement() < 5) {
+                        System.out.println("[Seed] " + key + " failed for item " + item + ": " + problem);
+                    }
+                }, pool));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Report(phase, items.size(), succeeded.get(), retries.sum(), threads, seconds, latency);
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        while (t.getCause() != null && t.getCause() != t) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    private static RequestSpecification authorized(String base) {
+        return RestAssured.given()
+                .config(HttpClients.restAssuredConfig())
+                .baseUri(base)
+                .contentType(ContentType.JSON)
+                .header("Authorization", "Bearer " + TokenManager.getToken());
+    }
+
+    /** Exponential backoff with full jitter: uniform in [0, base * 2^(attempt-1)]. */
+    private static long backoff(long baseMillis, int attempt) {
+        long cap = baseMillis << Math.min(attempt - 1, 10);
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while seeding", e);
+        }
+    }
+}
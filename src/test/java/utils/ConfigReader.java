@@ -6,6 +6,9 @@ import java.io.IOException;
 import java.util.Properties;
 
 public class ConfigReader {
+    private static final String DEFAULT_PATH = "src/test/resources/config.properties";
+    private static volatile ConfigReader defaults;
+
     private final Properties properties = new Properties();
 
     public ConfigReader(String filePath) {
@@ -16,7 +19,85 @@ public class ConfigReader {
         }
     }
 
+    /** A reader over the given settings; {@code -D} system properties still override them. */
+    public ConfigReader(Properties properties) {
+        this.properties.putAll(properties);
+    }
+
+    /** Shared reader for {@code config.properties}, loaded once and safe to use from any thread. */
+    public static ConfigReader defaults() {
+        ConfigReader cfg = defaults;
+        if (cfg == null) {
+            synchronized (ConfigReader.class) {
+                cfg = defaults;
+                if (cfg == null) {
+                    cfg = new ConfigReader(DEFAULT_PATH);
+                    defaults = cfg;
+                }
+            }
+        }
+        return cfg;
+    }
+
     public String get(String key) {
         return properties.getProperty(key);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads a setting, letting a {@code -Dkey=value} system property override the file.
+     *
+     * @param key          property name
+     * @param defaultValue value used when neither source defines the key
+     * @return trimmed value, or {@code defaultValue}
+     */
+    public String get(String key, String defaultValue) {
+        String value = System.getProperty(key, properties.getProperty(key));
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config '" + key + "' is not an integer: " + value, e);
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        try {
+            return value != null ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config '" + key + "' is not a number: " + value, e);
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = get(key, null);
+        try {
+            return value != null ? Double.parseDouble(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config '" + key + "' is not a number: " + value, e);
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    /**
+     * Base URI of the API under test: {@code -Dapi.base} wins over {@code base_uri}. The value
+     * {@code embedded} starts the in-process {@link EmbeddedBookstore} and returns its address.
+     */
+    public String baseUri() {
+        String fromFile = get("base_uri");
+        String base = System.getProperty("api.base",
+                fromFile != null && !fromFile.isBlank() ? fromFile.trim() : "http://localhost:8000").trim();
+        if (base.equalsIgnoreCase("embedded")) {
+            return EmbeddedBookstore.start(this).baseUri();
+        }
+        return base;
+    }
+}
@@ -0,0 +1,235 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Rows of a CSV or NDJSON file, read one at a time so datasets of any size stream through in
+ * constant memory. The file is looked up as a path first and then as {@code testData/<name>} on the
+ * classpath; a {@code .gz} suffix is decompressed on the fly.
+ *
+ * <p>Every row becomes a JSON object used as the request body. Two columns/keys are taken out of the
+ * body: {@code expected_status} (the status this row must return; default any 2xx) and {@code id}
+ * (the book id for PUT/GET/DELETE). CSV has a header row; a column is sent as a number or boolean
+ * when its header says so ({@code published_year:int}, {@code price:number}, {@code in_stock:bool}),
+ * and empty cells are left out of the body.
+ */
+public final class Dataset implements Iterator<Dataset.Row>, Closeable {
+
+    /**
+     * @param number         1-based data row number (header and blank lines not counted)
+     * @param body           request body
+     * @param expectedStatus status the row must return, or null for any 2xx
+     * @param id             book id from the row, or null
+     */
+    public record Row(long number, ObjectNode body, Integer expectedStatus, String id) {}
+
+    private final String name;
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final List<String> columns = new ArrayList<>();
+    private final List<String> types = new ArrayList<>();
+    private long rows;
+    private Row next;
+
+    private Dataset(String name, InputStream in) throws IOException {
+        this.name = name;
+        String plain = name.toLowerCase(Locale.ROOT).replaceFirst("\\.gz$", "");
+        if (plain.endsWith(".csv")) {
+            this.csv = true;
+        } else if (plain.endsWith(".ndjson") || plain.endsWith(".jsonl")) {
+            this.csv = false;
+        } else {
+            in.close();
+            throw new IllegalArgumentException("Dataset must be .csv, .ndjson or .jsonl (optionally .gz): " + name);
+        }
+        InputStream data = name.toLowerCase(Locale.ROOT).endsWith(".gz") ? new GZIPInputStream(in, 64 * 1024) : in;
+        this.reader = new BufferedReader(new InputStreamReader(data, StandardCharsets.UTF_8), 64 * 1024);
+        if (csv) {
+            List<String> header = readCsvRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("Dataset " + name + " has no header row");
+            }
+            for (String column : header) {
+                String[] parts = column.trim().split(":", 2);
+                columns.add(parts[0].trim());
+                types.add(parts.length > 1 ? parts[1].trim().toLowerCase(Locale.ROOT) : "string");
+            }
+        }
+    }
+
+    /** Opens {@code name} as a file path, or else as {@code testData/<name>} on the classpath. */
+    public static Dataset open(String name) {
+        try {
+            Path path = Path.of(name);
+            if (Files.isRegularFile(path)) {
+                return new Dataset(name, Files.newInputStream(path));
+            }
+            InputStream in = Dataset.class.getClassLoader().getResourceAsStream("testData/" + name);
+            if (in == null) {
+                throw new IllegalArgumentException("Dataset not found as a file or testData/" + name);
+            }
+            return new Dataset(name, in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open dataset " + name, e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = csv ? nextCsvRow() : nextJsonRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read dataset " + name, e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row nextJsonRow() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rows++;
+            JsonNode node;
+            try {
+                node = Json.MAPPER.readTree(line);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Dataset " + name + " row " + rows + " is not valid JSON: "
+                        + e.getMessage());
+            }
+            if (!(node instanceof ObjectNode body)) {
+                throw new IllegalArgumentException("Dataset " + name + " row " + rows + " is not a JSON object");
+            }
+            JsonNode expected = body.remove("expected_status");
+            JsonNode id = body.remove("id");
+            return new Row(rows, body, expected == null || expected.isNull() ? null : expected.asInt(),
+                    id == null || id.isNull() ? null : id.asText());
+        }
+        return null;
+    }
+
+    private Row nextCsvRow() throws IOException {
+        List<String> cells;
+        do {
+            cells = readCsvRecord();
+            if (cells == null) {
+                return null;
+            }
+        } while (cells.size() == 1 && cells.get(0).isBlank());
+        rows++;
+        if (cells.size() > columns.size()) {
+            throw new IllegalArgumentException("Dataset " + name + " row " + rows + " has " + cells.size()
+                    + " cells for " + columns.size() + " columns");
+        }
+        ObjectNode body = Json.MAPPER.createObjectNode();
+        Integer expected = null;
+        String id = null;
+        for (int i = 0; i < cells.size(); i++) {
+            String column = columns.get(i);
+            String value = cells.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (column) {
+                case "expected_status" -> expected = Integer.parseInt(value.trim());
+                case "id" -> id = value.trim();
+                default -> put(body, column, types.get(i), value);
+            }
+        }
+        return new Row(rows, body, expected, id);
+    }
+
+    private void put(ObjectNode body, String column, String type, String value) {
+        try {
+            switch (type) {
+                case "int", "long" -> body.put(column, Long.parseLong(value.trim()));
+                case "number", "double" -> body.put(column, Double.parseDouble(value.trim()));
+                case "bool", "boolean" -> body.put(column, Boolean.parseBoolean(value.trim()));
+                default -> body.put(column, value);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Dataset " + name + " row " + rows + ": " + column + "=" + value
+                    + " is not a valid " + type);
+        }
+    }
+
+    /** One RFC 4180 record: comma-separated, fields optionally quoted with {@code ""} escapes and line breaks. */
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"' && cell.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                break;
+            } else {
+                cell.append((char) c);
+            }
+            c = reader.read();
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
@@ -0,0 +1,159 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.restassured.response.Response;
+import perf.LatencyStats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends one request per {@link Dataset} row through the scenario's {@link RequestEngine}, with at
+ * most {@code inFlight} outstanding. Rows are read only when a slot frees up, so memory does not
+ * grow with the dataset. Per-row results are folded into status counts and a latency histogram;
+ * only the first {@code dataset.failures.shown} failures are kept in detail.
+ *
+ * <p>POST goes to {@code /books/}; PUT, GET and DELETE go to {@code /books/{id}} with the row's
+ * {@code id}, or a seeded book when the row has none. With {@code dataset.cleanup=true} books
+ * created by the sweep are handed to {@link CatalogSeeder}, which deletes them after the run.
+ */
+public final class DatasetSweep {
+
+    /** Status used in the counts for rows that got no response. */
+    public static final int TRANSPORT_ERROR = -1;
+
+    /** Aggregated outcome of a sweep. */
+    public record Result(String dataset, String method, long rows, long failed, Map<Integer, Long> statusCounts,
+                         List<String> failures, LatencyStats latency, double seconds) {
+        public double perSecond() {
+            return seconds > 0 ? rows / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %d rows in %.2fs (%.0f rows/s), %d failed, status counts %s",
+                    method, dataset, rows, seconds, perSecond(), failed, statusCounts);
+        }
+    }
+
+    private static final String BOOKS = "/books/";
+    private static final Map<String, String> HEADERS = Map.of("Content-Type", "application/json");
+
+    private final RequestEngine engine;
+    private final int inFlight;
+    private final int failuresShown;
+    private final boolean cleanup;
+
+    public DatasetSweep(RequestEngine engine, int inFlight, ConfigReader cfg) {
+        if (inFlight < 1) {
+            throw new IllegalArgumentException("Need at least one request in flight");
+        }
+        this.engine = engine;
+        this.inFlight = inFlight;
+        this.failuresShown = cfg.getInt("dataset.failures.shown", 10);
+        this.cleanup = cfg.getBoolean("dataset.cleanup", true);
+    }
+
+    public Result run(String datasetName, String method) throws IOException {
+        String verb = method.toUpperCase(Locale.ROOT);
+        if (!List.of("POST", "PUT", "GET", "DELETE").contains(verb)) {
+            throw new IllegalArgumentException("Unsupported method for a dataset sweep: " + method);
+        }
+        ConcurrentMap<Integer, LongAdder> counts = new ConcurrentHashMap<>();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong failed = new AtomicLong();
+        LatencyStats latency = new LatencyStats();
+        String key = verb + " " + (verb.equals("POST") ? BOOKS : BOOKS + "{id}");
+        Semaphore slots = new Semaphore(inFlight);
+        long rows = 0;
+        long start = System.nanoTime();
+
+        try (Dataset dataset = Dataset.open(datasetName)) {
+            while (dataset.hasNext()) {
+                slots.acquireUninterruptibly();
+                Dataset.Row row;
+                try {
+                    row = dataset.next();
+                } catch (RuntimeException e) {
+                    slots.release();
+                    throw e;
+                }
+                rows++;
+                String path = verb.equals("POST") ? BOOKS : BOOKS + (row.id() != null ? row.id()
+                        : String.valueOf(verb.equals("DELETE") ? CatalogSeeder.takeId() : CatalogSeeder.anyId()));
+                String body = verb.equals("POST") || verb.equals("PUT") ? Json.write(row.body()) : null;
+                long sent = System.nanoTime();
+                CompletableFuture<Response> call;
+                try {
+                    call = engine.sendAsync(verb, path, body, HEADERS);
+                } catch (RuntimeException e) {
+                    call = CompletableFuture.failedFuture(e);
+                }
+                call.whenComplete((response, error) -> {
+                    try {
+                        int status = error == null ? response.getStatusCode() : TRANSPORT_ERROR;
+                        counts.computeIfAbsent(status, k -> new LongAdder()).increment();
+                        boolean ok = row.expectedStatus() != null ? status == row.expectedStatus()
+                                : status >= 200 && status < 300;
+                        latency.record(key, System.nanoTime() - sent, !ok);
+                        if (!ok) {
+                            if (failed.incrementAndGet() <= failuresShown) {
+                                failures.add(describe(row, verb, path, status, response, error));
+                            }
+                        } else if (cleanup && verb.equals("POST")) {
+                            adopt(response);
+                        }
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            // Wait for the requests still in flight
+            slots.acquireUninterruptibly(inFlight);
+            slots.release(inFlight);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        counts.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        return new Result(datasetName, verb, rows, failed.get(), statusCounts, List.copyOf(failures), latency, seconds);
+    }
+
+    private static String describe(Dataset.Row row, String verb, String path, int status, Response response,
+                                   Throwable error) {
+        String expected = row.expectedStatus() != null ? String.valueOf(row.expectedStatus()) : "2xx";
+        String actual;
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            actual = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        } else {
+            String text = response.asString();
+            actual = status + " " + (text.length() > 200 ? text.substring(0, 200) + "…" : text);
+        }
+        return "row " + row.number() + ": " + verb + " " + path + " expected " + expected + ", got " + actual;
+    }
+
+    /** Registers the id of a created book so the catalog teardown deletes it. */
+    private static void adopt(Response response) {
+        try {
+            JsonNode id = Json.MAPPER.readTree(response.asByteArray()).get("id");
+            if (id != null && id.canConvertToInt()) {
+                CatalogSeeder.adopt(id.intValue());
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // No id in the response; nothing to clean up
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * In-process stand-in for the Bookstore API, started on first use when {@code -Dapi.base=embedded}
+ * (see {@link ConfigReader#baseUri()}). Serves {@code /login}, {@code /signup}, {@code /books/} and
+ * {@code /books/{id}} with the status codes the features assert: 200, 400 (bad credentials or a
+ * book without a name), 401 (missing/unknown bearer token), 404 and 422 (missing password,
+ * non-numeric id).
+ *
+ * <p>Known users are the configured {@code email}/{@code password}, {@code embedded.users}
+ * ({@code email:password;...}) and anyone who signs up. Tokens live {@code embedded.token.ttl}
+ * seconds. {@code embedded.latency.ms} plus up to {@code embedded.latency.jitter.ms} is added to
+ * every response without holding a thread, and {@code embedded.error.percent} of {@code /books}
+ * requests fail with 500. Books are kept pre-serialized, so the listing is only concatenated,
+ * never re-encoded.
+ *
+ * <p>GET responses carry an {@code ETag} (a hash of the body; the listing also has
+ * {@code Last-Modified}) and {@code Cache-Control: no-cache}, or {@code max-age=N} with
+ * {@code embedded.cache.max.age}. A matching {@code If-None-Match} or an unchanged
+ * {@code If-Modified-Since} is answered with 304 and no body.
+ */
+public final class EmbeddedBookstore {
+
+    static {
+        // The JDK server writes headers and body as separate segments; with Nagle on, the body waits
+        // for the client's delayed ACK (~40 ms on Linux). Read once, when the first HttpServer is made.
+        // Surefire's argLine also sets it; this covers JMH, IDE runs and java -cp launches.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private static volatile EmbeddedBookstore running;
+
+    private final HttpServer server;
+    private final ScheduledExecutorService delayer;
+    private final Map<String, String> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, byte[]> books = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicLong tokenSequence = new AtomicLong();
+    private final long tokenTtlSeconds;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorPercent;
+    // Bumped after every write; the cached listing is only reused while its version is current
+    private final AtomicLong version = new AtomicLong();
+    private volatile Listing listing = new Listing(-1, null, null, 0);
+    private final String cacheControl;
+
+    private EmbeddedBookstore(ConfigReader cfg) throws IOException {
+        this.tokenTtlSeconds = cfg.getLong("embedded.token.ttl", 3600);
+        this.latencyMillis = cfg.getLong("embedded.latency.ms", 0);
+        this.jitterMillis = cfg.getLong("embedded.latency.jitter.ms", 0);
+        this.errorPercent = cfg.getDouble("embedded.error.percent", 0);
+        this.nextId.set(cfg.getInt("embedded.first.id", 1));
+        long maxAge = cfg.getLong("embedded.cache.max.age", 0);
+        this.cacheControl = maxAge > 0 ? "max-age=" + maxAge : "no-cache";
+
+        users.put(cfg.get("email"), cfg.get("password"));
+        for (String entry : cfg.get("embedded.users", "").split(";")) {
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length == 2) {
+                users.put(parts[0].trim(), parts[1].trim());
+            }
+        }
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.delayer = Executors.newScheduledThreadPool(2, r -> daemon(r, "embedded-bookstore-delay"));
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", cfg.getInt("embedded.port", 0)),
+                cfg.getInt("embedded.backlog", 4096));
+        this.server.setExecutor(Executors.newFixedThreadPool(cfg.getInt("embedded.threads",
+                        Math.max(4, Runtime.getRuntime().availableProcessors() * 2)),
+                r -> daemon(r, "embedded-bookstore-" + threadIds.incrementAndGet())));
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    /** Starts the server once per JVM and returns it. */
+    public static EmbeddedBookstore start(ConfigReader cfg) {
+        EmbeddedBookstore s = running;
+        if (s == null) {
+            synchronized (EmbeddedBookstore.class) {
+                s = running;
+                if (s == null) {
+                    try {
+                        s = new EmbeddedBookstore(cfg);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not start embedded bookstore", e);
+                    }
+                    running = s;
+                    System.out.println("[Stub] Embedded bookstore on " + s.baseUri());
+                }
+            }
+        }
+        return s;
+    }
+
+    public String baseUri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) {
+        Reply reply;
+        try {
+            byte[] request = readAll(exchange.getRequestBody());
+            reply = route(exchange, request);
+        } catch (RuntimeException | IOException e) {
+            reply = new Reply(500, detail(e.toString()));
+        }
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        Reply finalReply = reply;
+        if (delay > 0) {
+            delayer.schedule(() -> send(exchange, finalReply), delay, TimeUnit.MILLISECONDS);
+        } else {
+            send(exchange, finalReply);
+        }
+    }
+
+    private record Reply(int status, byte[] body, Map<String, String> headers) {
+        Reply(int status, byte[] body) {
+            this(status, body, Map.of());
+        }
+    }
+
+    private record Listing(long version, byte[] body, String etag, long modifiedMillis) {}
+
+    private Reply route(HttpExchange exchange, byte[] request) {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+
+        if (path.equals("/login") && method.equals("POST")) {
+            return login(parse(request));
+        }
+        if (path.equals("/signup") && method.equals("POST")) {
+            return signup(parse(request));
+        }
+        if (!path.startsWith("/books")) {
+            return new Reply(404, detail("Not Found"));
+        }
+        if (!authorized(exchange)) {
+            return new Reply(401, detail("Invalid or expired token"));
+        }
+        if (errorPercent > 0 && ThreadLocalRandom.current().nextDouble() * 100 < errorPercent) {
+            return new Reply(500, detail("Injected error"));
+        }
+        if (path.equals("/books/") || path.equals("/books")) {
+            return switch (method) {
+                case "GET" -> {
+                    Listing current = listing();
+                    yield cacheable(exchange, current.body(), current.etag(), current.modifiedMillis());
+                }
+                case "POST" -> create(parse(request));
+                default -> new Reply(405, detail("Method Not Allowed"));
+            };
+        }
+        String idText = path.substring("/books/".length());
+        int id;
+        try {
+            id = Integer.parseInt(idText);
+        } catch (NumberFormatException e) {
+            return new Reply(422, detail("book_id must be an integer"));
+        }
+        return switch (method) {
+            case "GET" -> {
+                byte[] book = books.get(id);
+                yield book != null ? cacheable(exchange, book, etag(book), 0) : notFound();
+            }
+            case "PUT" -> update(id, parse(request));
+            case "DELETE" -> {
+                if (books.remove(id) == null) {
+                    yield notFound();
+                }
+                version.incrementAndGet();
+                yield new Reply(200, detail("Book deleted successfully"));
+            }
+            default -> new Reply(405, detail("Method Not Allowed"));
+        };
+    }
+
+    private Reply login(JsonNode body) {
+        if (body == null || !body.hasNonNull("email")) {
+            return new Reply(400, detail("Email is required"));
+        }
+        if (!body.hasNonNull("password")) {
+            return new Reply(422, detail("Password is required"));
+        }
+        String expected = users.get(body.get("email").asText());
+        if (expected == null || !expected.equals(body.get("password").asText())) {
+            return new Reply(400, detail("Incorrect email or password"));
+        }
+        String token = "embedded-" + tokenSequence.incrementAndGet() + "-" + Long.toHexString(System.nanoTime());
+        tokens.put(token, System.currentTimeMillis() + tokenTtlSeconds * 1000);
+        ObjectNode reply = Json.MAPPER.createObjectNode()
+                .put("access_token", token)
+                .put("token_type", "bearer")
+                .put("expires_in", tokenTtlSeconds);
+        return new Reply(200, bytes(reply));
+    }
+
+    private Reply signup(JsonNode body) {
+        if (body == null || !body.hasNonNull("email") || !body.hasNonNull("password")) {
+            return new Reply(422, detail("Email and password are required"));
+        }
+        if (users.putIfAbsent(body.get("email").asText(), body.get("password").asText()) != null) {
+            return new Reply(400, detail("Email already registered"));
+        }
+        return new Reply(200, detail("User created successfully"));
+    }
+
+    private Reply create(JsonNode body) {
+        if (!(body instanceof ObjectNode book) || !book.hasNonNull("name") || book.get("name").asText().isBlank()) {
+            return new Reply(400, detail("Book name is required"));
+        }
+        int id = nextId.getAndIncrement();
+        book.put("id", id);
+        byte[] stored = bytes(book);
+        books.put(id, stored);
+        version.incrementAndGet();
+        return new Reply(200, stored);
+    }
+
+    private Reply update(int id, JsonNode body) {
+        if (!books.containsKey(id)) {
+            return notFound();
+        }
+        if (!(body instanceof ObjectNode book) || !book.hasNonNull("name") || book.get("name").asText().isBlank()) {
+            return new Reply(400, detail("Book name is required"));
+        }
+        book.put("id", id);
+        byte[] stored = bytes(book);
+        if (books.replace(id, stored) == null) {
+            return notFound();
+        }
+        version.incrementAndGet();
+        return new Reply(200, stored);
+    }
+
+    /** The cached {@code GET /books/} body and validators; rebuilt from the stored books after any write. */
+    private Listing listing() {
+        long current = version.get();
+        Listing cached = listing;
+        if (cached.version() != current) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write('[');
+            boolean first = true;
+            for (byte[] book : books.values()) {
+                if (!first) {
+                    out.write(',');
+                }
+                out.writeBytes(book);
+                first = false;
+            }
+            out.write(']');
+            byte[] body = out.toByteArray();
+            cached = new Listing(current, body, etag(body), System.currentTimeMillis());
+            listing = cached;
+        }
+        return cached;
+    }
+
+    /** 200 with validators, or 304 when the client's copy (If-None-Match, else If-Modified-Since) is current. */
+    private Reply cacheable(HttpExchange exchange, byte[] body, String etag, long modifiedMillis) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("ETag", etag);
+        headers.put("Cache-Control", cacheControl);
+        if (modifiedMillis > 0) {
+            headers.put("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    Instant.ofEpochMilli(modifiedMillis).atZone(ZoneOffset.UTC)));
+        }
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        boolean notModified;
+        if (ifNoneMatch != null) {
+            notModified = matchesEtag(ifNoneMatch, etag);
+        } else if (ifModifiedSince != null && modifiedMillis > 0) {
+            notModified = notModifiedSince(ifModifiedSince, modifiedMillis);
+        } else {
+            notModified = false;
+        }
+        return notModified ? new Reply(304, new byte[0], headers) : new Reply(200, body, headers);
+    }
+
+    /** Strong validator over the exact bytes served. */
+    private static String etag(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+    }
+
+    /** {@code If-None-Match} list (weak comparison, as RFC 9110 asks for GET) or {@code *}. */
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean notModifiedSince(String ifModifiedSince, long modifiedMillis) {
+        try {
+            ZonedDateTime since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            // HTTP dates have whole seconds
+            return !Instant.ofEpochMilli(modifiedMillis).truncatedTo(ChronoUnit.SECONDS).isAfter(since.toInstant());
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private boolean authorized(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return false;
+        }
+        Long expiry = tokens.get(header.substring("Bearer ".length()).trim());
+        return expiry != null && expiry > System.currentTimeMillis();
+    }
+
+    private static Reply notFound() {
+        return new Reply(404, detail("Book not found"));
+    }
+
+    private static JsonNode parse(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            return Json.MAPPER.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static byte[] bytes(JsonNode node) {
+        try {
+            return Json.WRITER.writeValueAsBytes(node);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] detail(String message) {
+        return bytes(Json.MAPPER.createObjectNode().put("detail", message));
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void send(HttpExchange exchange, Reply reply) {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            reply.headers().forEach(exchange.getResponseHeaders()::set);
+            byte[] body = reply.body();
+            exchange.sendResponseHeaders(reply.status(), body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException ignored) {
+            // Client went away; nothing to do
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
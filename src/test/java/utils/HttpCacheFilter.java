@@ -0,0 +1,259 @@
+package utils;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side HTTP cache for GET requests, shared by all scenarios of the run. A stored response is
+ * served without a request while its {@code Cache-Control: max-age} lasts; after that (or with
+ * {@code no-cache}, or no max-age at all) it is revalidated with {@code If-None-Match} /
+ * {@code If-Modified-Since}, and a 304 answer is turned back into the stored 200. Responses marked
+ * {@code no-store}, or without a validator or max-age, are not kept. A successful POST, PUT or
+ * DELETE drops the cached target and its parent collection ({@code PUT /books/7} also drops
+ * {@code /books/}).
+ *
+ * <p>Registered first on the scenario's request spec, so a fresh hit skips auth and timing, and a
+ * 401 replay in {@link AuthRetryFilter} still comes back through the cache. GETs bypass it unless
+ * {@code http.cache.enabled=true} or the scenario {@link #enable()}s it; writes invalidate it in
+ * every scenario, since a scenario with the cache on may read what another one changed. Only writes
+ * sent through a scenario's spec do: {@link CatalogSeeder} (before and after the run) and
+ * {@link AsyncHttpEngine} (load runs) don't pass through this filter. Requests that already carry
+ * their own conditional headers pass through untouched, so steps can assert on a raw 304. Responses
+ * rebuilt from the cache carry {@value #CACHE_HEADER}: {@code hit} or {@code revalidated}. Entries
+ * are keyed by URI only, which is right for the book catalog all identities share. Streamed
+ * responses ({@link TimingFilter#streaming}) are never stored, since that would buffer them.
+ */
+public class HttpCacheFilter implements Filter {
+
+    /** Marks responses served from the cache. */
+    public static final String CACHE_HEADER = "X-Client-Cache";
+
+    /** Counters over the whole run. */
+    public record Stats(long lookups, long hits, long revalidated, long misses, long stored, long invalidated,
+                        long bytesSaved) {
+        public double hitRatio() {
+            return lookups == 0 ? 0 : (double) (hits + revalidated) / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("lookups=%d, hits=%d, revalidated (304)=%d, misses=%d, hit ratio=%.1f%%, "
+                            + "bytes saved=%d, stored=%d, invalidated=%d",
+                    lookups, hits, revalidated, misses, hitRatio() * 100, bytesSaved, stored, invalidated);
+        }
+    }
+
+    private record Entry(byte[] body, List<Header> headers, String statusLine, String contentType,
+                         String etag, String lastModified, long freshUntil) {
+        boolean fresh(long now) {
+            return now - freshUntil < 0;
+        }
+    }
+
+    private static final ConfigReader CFG = ConfigReader.defaults();
+    private static final int MAX_ENTRIES = CFG.getInt("http.cache.max.entries", 10_000);
+    private static final Map<String, Entry> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    private static final LongAdder LOOKUPS = new LongAdder();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder REVALIDATED = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder STORED = new LongAdder();
+    private static final LongAdder INVALIDATED = new LongAdder();
+    private static final LongAdder BYTES_SAVED = new LongAdder();
+
+    private volatile boolean enabled = CFG.getBoolean("http.cache.enabled", false);
+
+    /** Switches the cache on for this scenario's requests. */
+    public void enable() {
+        enabled = true;
+    }
+
+    public static Stats stats() {
+        return new Stats(LOOKUPS.sum(), HITS.sum(), REVALIDATED.sum(), MISSES.sum(), STORED.sum(),
+                INVALIDATED.sum(), BYTES_SAVED.sum());
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification req,
+                           FilterableResponseSpecification res,
+                           FilterContext ctx) {
+        String uri = req.getURI();
+        if (!"GET".equalsIgnoreCase(req.getMethod())) {
+            // Also with the cache off: the store is shared, and another scenario may still read it
+            Response response = ctx.next(req, res);
+            if (response.getStatusCode() < 400) {
+                invalidate(uri);
+            }
+            return response;
+        }
+        if (!enabled) {
+            return ctx.next(req, res);
+        }
+        if (req.getHeaders().hasHeaderWithName("If-None-Match") || req.getHeaders().hasHeaderWithName("If-Modified-Since")) {
+            return ctx.next(req, res);
+        }
+
+        LOOKUPS.increment();
+        Entry cached = CACHE.get(uri);
+        if (cached != null && cached.fresh(System.nanoTime())) {
+            HITS.increment();
+            BYTES_SAVED.add(cached.body().length);
+            return rebuild(cached, "hit");
+        }
+        if (cached != null) {
+            if (cached.etag() != null) {
+                req.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                req.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+
+        Response response = ctx.next(req, res);
+        if (cached != null && response.getStatusCode() == 304) {
+            REVALIDATED.increment();
+            BYTES_SAVED.add(cached.body().length);
+            Entry refreshed = refresh(cached, response);
+            CACHE.put(uri, refreshed);
+            return rebuild(refreshed, "revalidated");
+        }
+        MISSES.increment();
+        if (response.getStatusCode() == 200 && !TimingFilter.isStreaming()) {
+            store(uri, response);
+        } else if (cached != null) {
+            CACHE.remove(uri);
+        }
+        return response;
+    }
+
+    private static void store(String uri, Response response) {
+        String cacheControl = response.getHeader("Cache-Control");
+        String etag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+        long maxAge = maxAgeSeconds(cacheControl);
+        if (directive(cacheControl, "no-store") || "*".equals(response.getHeader("Vary"))
+                || (etag == null && lastModified == null && maxAge <= 0)) {
+            CACHE.remove(uri);
+            return;
+        }
+        List<Header> headers = new ArrayList<>(response.getHeaders().asList());
+        CACHE.put(uri, new Entry(response.asByteArray(), headers, response.getStatusLine(), response.getContentType(),
+                etag, lastModified, freshUntil(cacheControl)));
+        STORED.increment();
+    }
+
+    /** The stored entry with the validators and freshness of a 304 answer. */
+    private static Entry refresh(Entry cached, Response notModified) {
+        Map<String, Header> merged = new LinkedHashMap<>();
+        for (Header header : cached.headers()) {
+            merged.put(header.getName().toLowerCase(Locale.ROOT), header);
+        }
+        for (Header header : notModified.getHeaders()) {
+            if (!header.getName().equalsIgnoreCase("Content-Length")) {
+                merged.put(header.getName().toLowerCase(Locale.ROOT), header);
+            }
+        }
+        String etag = notModified.getHeader("ETag");
+        String lastModified = notModified.getHeader("Last-Modified");
+        String cacheControl = notModified.getHeader("Cache-Control");
+        return new Entry(cached.body(), new ArrayList<>(merged.values()), cached.statusLine(), cached.contentType(),
+                etag != null ? etag : cached.etag(), lastModified != null ? lastModified : cached.lastModified(),
+                freshUntil(cacheControl != null ? cacheControl : headerValue(cached.headers(), "Cache-Control")));
+    }
+
+    private static Response rebuild(Entry entry, String how) {
+        List<Header> headers = new ArrayList<>(entry.headers());
+        headers.add(new Header(CACHE_HEADER, how));
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(200)
+                .setStatusLine(entry.statusLine())
+                .setHeaders(new Headers(headers))
+                .setBody(entry.body());
+        if (entry.contentType() != null && !entry.contentType().isEmpty()) {
+            builder.setContentType(entry.contentType());
+        }
+        return builder.build();
+    }
+
+    /** Drops the target and its parent collection, e.g. {@code /books/7} and {@code /books/}. */
+    private static void invalidate(String uri) {
+        String target = stripQuery(uri);
+        int end = target.endsWith("/") ? target.length() - 1 : target.length();
+        String parent = target.substring(0, target.lastIndexOf('/', end - 1) + 1);
+        for (String key : List.of(uri, target, parent)) {
+            if (CACHE.remove(key) != null) {
+                INVALIDATED.increment();
+            }
+        }
+    }
+
+    private static String stripQuery(String uri) {
+        int query = uri.indexOf('?');
+        return query >= 0 ? uri.substring(0, query) : uri;
+    }
+
+    private static long freshUntil(String cacheControl) {
+        long maxAge = directive(cacheControl, "no-cache") ? 0 : maxAgeSeconds(cacheControl);
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(0, maxAge));
+    }
+
+    private static long maxAgeSeconds(String cacheControl) {
+        if (cacheControl == null) {
+            return 0;
+        }
+        for (String part : cacheControl.split(",")) {
+            String directive = part.trim().toLowerCase(Locale.ROOT);
+            if (directive.startsWith("max-age=")) {
+                try {
+                    return Long.parseLong(directive.substring("max-age=".length()).replace("\"", "").trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static boolean directive(String cacheControl, String name) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String part : cacheControl.split(",")) {
+            if (part.trim().toLowerCase(Locale.ROOT).startsWith(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String headerValue(List<Header> headers, String name) {
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+}
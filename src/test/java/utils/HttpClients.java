@@ -0,0 +1,153 @@
+package utils;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeLayeredSocketFactory;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.params.HttpParams;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One pooled, keep-alive HttpClient shared by every RestAssured call (scenario requests, logins,
+ * signups). RestAssured's default builds a fresh client per request, which means a new TCP
+ * connection each time; here connections are reused up to the pool limits, idle ones are evicted
+ * in the background, and opened vs reused connections are counted.
+ *
+ * <p>Settings ({@code config.properties} or {@code -D}): {@code http.pool.max.total},
+ * {@code http.pool.max.per.route}, {@code http.pool.idle.evict.seconds}, {@code http.keepalive.ms},
+ * {@code http.connect.timeout.ms}, {@code http.read.timeout.ms}.
+ */
+@SuppressWarnings("deprecation") // RestAssured 5 still drives the HttpClient 4 "classic" API
+public final class HttpClients {
+
+    /** Connection usage for the run; {@code reused = requests - opened}. */
+    public record Stats(long requests, long opened) {
+        public long reused() {
+            return Math.max(0, requests - opened);
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + requests + ", connections opened=" + opened + ", reused=" + reused();
+        }
+    }
+
+    private static final ConfigReader CFG = ConfigReader.defaults();
+    private static final LongAdder REQUESTS = new LongAdder();
+    private static final LongAdder OPENED = new LongAdder();
+
+    private static final DefaultHttpClient CLIENT = createClient();
+    private static final RestAssuredConfig CONFIG = RestAssuredConfig.config().httpClient(
+            HttpClientConfig.httpClientConfig()
+                    .reuseHttpClientInstance()
+                    .httpClientFactory(() -> CLIENT)
+                    .setParam(CoreConnectionPNames.CONNECTION_TIMEOUT, CFG.getInt("http.connect.timeout.ms", 5_000))
+                    .setParam(CoreConnectionPNames.SO_TIMEOUT, CFG.getInt("http.read.timeout.ms", 30_000))
+                    // A leaked or exhausted pool fails with ConnectionPoolTimeoutException instead of hanging
+                    .setParam(ClientPNames.CONN_MANAGER_TIMEOUT, CFG.getLong("http.pool.lease.timeout.ms", 10_000)));
+
+    private HttpClients() {}
+
+    /** RestAssured config backed by the shared client; pass it to {@code given().config(...)} or a spec. */
+    public static RestAssuredConfig restAssuredConfig() {
+        return CONFIG;
+    }
+
+    public static Stats stats() {
+        return new Stats(REQUESTS.sum(), OPENED.sum());
+    }
+
+    private static DefaultHttpClient createClient() {
+        SchemeRegistry schemes = new SchemeRegistry();
+        schemes.register(new Scheme("http", 80, new CountingSocketFactory(PlainSocketFactory.getSocketFactory())));
+        schemes.register(new Scheme("https", 443, new CountingLayeredSocketFactory(SSLSocketFactory.getSocketFactory())));
+
+        PoolingClientConnectionManager pool = new PoolingClientConnectionManager(schemes);
+        pool.setMaxTotal(CFG.getInt("http.pool.max.total", 64));
+        pool.setDefaultMaxPerRoute(CFG.getInt("http.pool.max.per.route", 32));
+
+        DefaultHttpClient client = new DefaultHttpClient(pool);
+        long keepAlive = CFG.getLong("http.keepalive.ms", 30_000);
+        client.setKeepAliveStrategy((response, context) -> {
+            // Honour the server's Keep-Alive: timeout=N, otherwise keep the connection for the configured time
+            long fromServer = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return fromServer > 0 ? fromServer : keepAlive;
+        });
+        client.addRequestInterceptor((request, context) -> REQUESTS.increment());
+        TimingFilter.install(client);
+
+        int idleSeconds = CFG.getInt("http.pool.idle.evict.seconds", 30);
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "http-idle-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, idleSeconds / 2);
+        evictor.scheduleAtFixedRate(() -> {
+            pool.closeExpiredConnections();
+            pool.closeIdleConnections(idleSeconds, TimeUnit.SECONDS);
+        }, period, period, TimeUnit.SECONDS);
+        return client;
+    }
+
+    /** Counts every new TCP connection the pool opens and times its setup for {@link TimingFilter}. */
+    private static class CountingSocketFactory implements SchemeSocketFactory {
+        final SchemeSocketFactory delegate;
+
+        CountingSocketFactory(SchemeSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createSocket(HttpParams params) throws IOException {
+            return delegate.createSocket(params);
+        }
+
+        @Override
+        public Socket connectSocket(Socket sock, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                                    HttpParams params) throws IOException, UnknownHostException, ConnectTimeoutException {
+            long start = System.nanoTime();
+            Socket connected = delegate.connectSocket(sock, remoteAddress, localAddress, params);
+            TimingFilter.connected(System.nanoTime() - start);
+            OPENED.increment();
+            return connected;
+        }
+
+        @Override
+        public boolean isSecure(Socket sock) {
+            return delegate.isSecure(sock);
+        }
+    }
+
+    private static final class CountingLayeredSocketFactory extends CountingSocketFactory
+            implements SchemeLayeredSocketFactory {
+
+        CountingLayeredSocketFactory(SchemeLayeredSocketFactory delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpParams params)
+                throws IOException, UnknownHostException {
+            return ((SchemeLayeredSocketFactory) delegate).createLayeredSocket(socket, target, port, params);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package utils;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import pojo.LoginRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the list of login identities used by {@link TokenManager}.
+ *
+ * <p>The configured {@code id}/{@code email}/{@code password} user always comes first. Further
+ * identities are read from {@code auth.pool.csv} (header {@code id,email,password}) and, if the
+ * pool is still smaller than {@code auth.pool.size}, created through the signup endpoint.
+ */
+public final class IdentityPool {
+
+    private IdentityPool() {}
+
+    public static List<LoginRequest> load(ConfigReader cfg) {
+        int size = cfg.getInt("auth.pool.size", 1);
+        List<LoginRequest> identities = new ArrayList<>();
+        identities.add(new LoginRequest(parseId(cfg.get("id"), 0), cfg.get("email"), cfg.get("password")));
+
+        String csv = cfg.get("auth.pool.csv", null);
+        if (csv != null && identities.size() < size) {
+            identities.addAll(readCsv(Path.of(csv), size - identities.size()));
+        }
+        if (identities.size() < size && cfg.getBoolean("auth.pool.signup", false)) {
+            identities.addAll(signUp(cfg, identities.size(), size - identities.size()));
+        }
+        if (identities.size() < size) {
+            System.out.println("[Auth] Identity pool has " + identities.size() + " of " + size
+                    + " requested users (set auth.pool.csv or auth.pool.signup=true for more)");
+        }
+        return identities;
+    }
+
+    private static List<LoginRequest> readCsv(Path file, int limit) {
+        List<LoginRequest> identities = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file)) {
+                if (identities.size() >= limit) {
+                    break;
+                }
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.startsWith("id,")) {
+                    continue;
+                }
+                String[] cols = trimmed.split(",", 3);
+                if (cols.length < 3) {
+                    throw new IllegalArgumentException("Expected id,email,password in " + file + ": " + line);
+                }
+                identities.add(new LoginRequest(parseId(cols[0], 0), cols[1].trim(), cols[2].trim()));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read identity file: " + file, e);
+        }
+        return identities;
+    }
+
+    /** Registers {@code count} users named {@code <prefix>-<n>@<domain>} through the signup endpoint. */
+    private static List<LoginRequest> signUp(ConfigReader cfg, int offset, int count) {
+        String base = cfg.baseUri();
+        String path = cfg.get("auth.signup.path", "/signup");
+        String prefix = cfg.get("auth.pool.prefix", "loaduser");
+        String domain = cfg.get("auth.pool.domain", "example.com");
+        String password = cfg.get("auth.pool.password", cfg.get("password"));
+        int firstId = cfg.getInt("auth.pool.first.id", 100_000);
+
+        List<LoginRequest> identities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int n = offset + i;
+            LoginRequest user = new LoginRequest(firstId + n, prefix + "-" + n + "@" + domain, password);
+            Response response = RestAssured.given()
+                    .config(HttpClients.restAssuredConfig())
+                    .baseUri(base)
+                    .contentType(ContentType.JSON)
+                    .body(user)
+                    .post(path);
+            // Read the body so the pooled connection is released before the next signup
+            response.asByteArray();
+            int code = response.getStatusCode();
+            // 400/409 usually means the user exists from a previous run, which is fine
+            if (code >= 500) {
+                throw new IllegalStateException("Signup of " + user.getEmail() + " failed: HTTP " + code);
+            }
+            identities.add(user);
+        }
+        System.out.println("[Auth] Signed up " + count + " pool users via " + path);
+        return identities;
+    }
+
+    private static int parseId(String value, int defaultValue) {
+        try {
+            return value != null && !value.isBlank() ? Integer.parseInt(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * The one {@link ObjectMapper} of the suite. Mappers are thread-safe once configured and cache
+ * serializers per type, so sharing one avoids repeating the reflection setup on every step call.
+ */
+public final class Json {
+
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+    public static final ObjectWriter WRITER = MAPPER.writer();
+
+    private Json() {}
+
+    public static String write(Object value) {
+        try {
+            return WRITER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    public static <T> T read(String json, Class<T> type) {
+        try {
+            return MAPPER.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not parse " + type.getSimpleName() + " from: " + json, e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Token-level checks on a top-level JSON array (e.g. {@code GET /books/}) with Jackson's streaming
+ * {@link JsonParser}: elements are walked one at a time and never materialized as maps. Memory
+ * stays constant however large the catalog is as long as the stream comes off the connection, i.e.
+ * the request was sent through {@link TimingFilter#streaming}; otherwise the body is already buffered.
+ */
+public final class JsonArrayScanner {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /** Outcome of {@link #validate}: element count plus the first few problems found. */
+    public record Result(long count, long invalid, List<String> violations) {}
+
+    private JsonArrayScanner() {}
+
+    /**
+     * Counts array elements, stopping as soon as {@code atLeast} have been seen.
+     *
+     * @return number of elements read (capped at {@code atLeast})
+     */
+    public static long countAtLeast(InputStream json, long atLeast) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            expectArray(parser);
+            long count = 0;
+            while (count < atLeast && parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Checks that every element is an object whose {@code requiredFields} are present and not null.
+     * Only top-level fields of each element are inspected; nested values are skipped unread.
+     *
+     * @param maxReported how many violations to describe in detail; the rest are only counted
+     */
+    public static Result validate(InputStream json, List<String> requiredFields, int maxReported) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            expectArray(parser);
+            List<String> violations = new ArrayList<>();
+            long count = 0;
+            long invalid = 0;
+            boolean[] seen = new boolean[requiredFields.size()];
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of JSON array after " + count + " elements");
+                }
+                long index = count++;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    invalid++;
+                    report(violations, maxReported, "element " + index + " is " + token + ", not an object");
+                    continue;
+                }
+                Arrays.fill(seen, false);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    int field = requiredFields.indexOf(parser.currentName());
+                    JsonToken value = parser.nextToken();
+                    if (field >= 0 && value != JsonToken.VALUE_NULL) {
+                        seen[field] = true;
+                    }
+                    parser.skipChildren();
+                }
+                List<String> missing = new ArrayList<>();
+                for (int i = 0; i < seen.length; i++) {
+                    if (!seen[i]) {
+                        missing.add(requiredFields.get(i));
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    invalid++;
+                    report(violations, maxReported, "element " + index + " missing/null " + missing);
+                }
+            }
+            return new Result(count, invalid, violations);
+        }
+    }
+
+    private static void expectArray(JsonParser parser) throws IOException {
+        JsonToken first = parser.nextToken();
+        if (first != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a JSON array but found " + first);
+        }
+    }
+
+    private static void report(List<String> violations, int maxReported, String message) {
+        if (violations.size() < maxReported) {
+            violations.add(message);
+        }
+    }
+}
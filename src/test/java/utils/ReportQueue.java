@@ -0,0 +1,184 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Step logs for the Extent report and console lines, written off the request thread.
+ *
+ * <p>{@code ExtentCucumberAdapter.addTestStepLog} takes a JVM-wide lock and stdout is synchronized,
+ * so with parallel scenarios every log line serialized the run. Callers now only look up their
+ * current Extent step (a thread-local read) and enqueue; one writer thread drains up to
+ * {@code report.batch.size} entries at a time, adds them to their steps and prints the console
+ * part of the batch with a single write.
+ *
+ * <p>The queue holds {@code report.queue.capacity} entries. When it is full, {@code report.overflow}
+ * decides: {@code block} (default) makes the caller wait, {@code drop} discards the new entry and
+ * counts it. {@code report.async=false} writes on the calling thread as before.
+ */
+public final class ReportQueue {
+
+    /** Counters for the end-of-run line. */
+    public record Stats(long queued, long written, long dropped, long batches, long maxDepth) {
+        @Override
+        public String toString() {
+            return "queued=" + queued + ", written=" + written + ", dropped=" + dropped + ", batches=" + batches
+                    + ", max depth=" + maxDepth;
+        }
+    }
+
+    private record Entry(ExtentTest step, String extent, String console, CountDownLatch drained) {}
+
+    private static final ConfigReader CONFIG = ConfigReader.defaults();
+    private static final boolean ASYNC = CONFIG.getBoolean("report.async", true);
+    private static final boolean DROP = "drop".equals(CONFIG.get("report.overflow", "block").trim().toLowerCase(Locale.ROOT));
+    private static final int BATCH = Math.max(1, CONFIG.getInt("report.batch.size", 256));
+    private static final BlockingQueue<Entry> QUEUE =
+            new ArrayBlockingQueue<>(Math.max(16, CONFIG.getInt("report.queue.capacity", 10_000)));
+
+    private static final AtomicLong QUEUED = new AtomicLong();
+    private static final LongAdder WRITTEN = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder BATCHES = new LongAdder();
+    private static final LongAccumulator MAX_DEPTH = new LongAccumulator(Math::max, 0);
+
+    static {
+        if (ASYNC) {
+            Thread writer = new Thread(ReportQueue::writeLoop, "report-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private ReportQueue() {}
+
+    /** Adds {@code message} to the calling thread's current Extent step and prints it. */
+    public static void log(String message) {
+        submit(currentStep(), message, message);
+    }
+
+    /** Adds {@code html} to the calling thread's current Extent step only. */
+    public static void step(String html) {
+        submit(currentStep(), html, null);
+    }
+
+    /** Prints {@code line} to stdout. */
+    public static void console(String line) {
+        submit(null, null, line);
+    }
+
+    /** Blocks until everything queued so far has been written (or the timeout passes). */
+    public static void drain(long timeoutMillis) {
+        if (!ASYNC) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            // Markers are never dropped, whatever the overflow policy
+            if (QUEUE.offer(new Entry(null, null, null, done), timeoutMillis, TimeUnit.MILLISECONDS)) {
+                done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static Stats stats() {
+        return new Stats(QUEUED.get(), WRITTEN.sum(), DROPPED.sum(), BATCHES.sum(), MAX_DEPTH.get());
+    }
+
+    private static ExtentTest currentStep() {
+        try {
+            return ExtentCucumberAdapter.getCurrentStep();
+        } catch (Throwable t) {
+            // Adapter not initialized (e.g. benchmarks); console only
+            return null;
+        }
+    }
+
+    private static void submit(ExtentTest step, String extent, String console) {
+        if (extent == null && console == null) {
+            return;
+        }
+        Entry entry = new Entry(step, extent, console, null);
+        if (!ASYNC) {
+            write(List.of(entry));
+            return;
+        }
+        QUEUED.incrementAndGet();
+        if (DROP) {
+            if (!QUEUE.offer(entry)) {
+                DROPPED.increment();
+                return;
+            }
+        } else {
+            try {
+                QUEUE.put(entry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                DROPPED.increment();
+                return;
+            }
+        }
+        MAX_DEPTH.accumulate(QUEUE.size());
+    }
+
+    private static void writeLoop() {
+        List<Entry> batch = new ArrayList<>(BATCH);
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+                QUEUE.drainTo(batch, BATCH - 1);
+                write(batch);
+                BATCHES.increment();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable t) {
+                // A broken report entry must not stop the writer
+                System.err.println("[Report] Could not write log entries: " + t);
+            } finally {
+                for (Entry entry : batch) {
+                    if (entry.drained() != null) {
+                        entry.drained().countDown();
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private static void write(List<Entry> batch) {
+        StringBuilder console = new StringBuilder();
+        for (Entry entry : batch) {
+            if (entry.drained() != null) {
+                continue;
+            }
+            if (entry.step() != null && entry.extent() != null) {
+                try {
+                    entry.step().info(entry.extent());
+                } catch (Throwable ignored) {
+                    // Extent not ready, ignore
+                }
+            }
+            if (entry.console() != null) {
+                console.append(entry.console()).append(System.lineSeparator());
+            }
+            WRITTEN.increment();
+        }
+        if (console.length() > 0) {
+            System.out.print(console);
+            System.out.flush();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package utils;
+
+import io.restassured.response.Response;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sends one API request and hands back a RestAssured {@link Response}, so step definitions and
+ * assertions don't care which HTTP stack ran it. Both engines attach the pooled identity's JWT
+ * and retry once on 401, and both feed {@code perf.RequestTimings}.
+ *
+ * <p>Selected per run with {@code -Drequest.engine=restassured|async} (default {@code restassured}).
+ */
+public interface RequestEngine {
+
+    /**
+     * @param method   HTTP method (GET, POST, PUT, DELETE)
+     * @param endpoint path relative to the base URI
+     * @param body     request payload (nullable)
+     * @param headers  extra request headers
+     */
+    CompletableFuture<Response> sendAsync(String method, String endpoint, String body, Map<String, String> headers);
+
+    /** Blocking variant used by regular steps; rethrows the engine's own exception. */
+    default Response send(String method, String endpoint, String body, Map<String, String> headers) {
+        try {
+            return sendAsync(method, endpoint, body, headers).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    /** Engine configured for this run, bound to the given scenario where the engine needs it. */
+    static RequestEngine forScenario(ScenarioContext context) {
+        String name = ConfigReader.defaults().get("request.engine", "restassured");
+        return switch (name.toLowerCase()) {
+            case "restassured" -> new RestAssuredEngine(context);
+            case "async" -> AsyncHttpEngine.shared();
+            default -> throw new IllegalArgumentException("Unknown request.engine: " + name);
+        };
+    }
+}
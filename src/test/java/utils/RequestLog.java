@@ -0,0 +1,127 @@
+package utils;
+
+import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Decides which request/response pairs reach the console and Extent report, and formats them only
+ * when they do. Bodies stay inside the {@link Response} until then, so large listings aren't
+ * re-parsed and pretty-printed on every call.
+ *
+ * <p>{@code log.mode}: {@code off}, {@code failures} (only when the scenario fails), {@code sampled}
+ * (every {@code log.sample.every}-th request, plus failures) or {@code full} (default). Bodies over
+ * {@code log.max.bytes} are cut and not pretty-printed. The last {@code log.keep} exchanges of a
+ * scenario are kept for the failure dump.
+ */
+public final class RequestLog {
+
+    public enum Mode { OFF, FAILURES, SAMPLED, FULL }
+
+    /**
+     * One request/response pair; {@code response} is null when the request itself failed. The body
+     * of a {@code streamed} response belongs to the step reading it and is never logged.
+     */
+    public static final class Exchange {
+        private final String method;
+        private final String endpoint;
+        private final String payload;
+        private final Response response;
+        private final boolean streamed;
+        private boolean logged;
+
+        public Exchange(String method, String endpoint, String payload, Response response) {
+            this(method, endpoint, payload, response, false);
+        }
+
+        public Exchange(String method, String endpoint, String payload, Response response, boolean streamed) {
+            this.method = method;
+            this.endpoint = endpoint;
+            this.payload = payload;
+            this.response = response;
+            this.streamed = streamed;
+        }
+    }
+
+    private static final ConfigReader CFG = ConfigReader.defaults();
+    private static final Mode MODE = parseMode(CFG.get("log.mode", "full"));
+    private static final int SAMPLE_EVERY = Math.max(1, CFG.getInt("log.sample.every", 10));
+    private static final int MAX_BYTES = CFG.getInt("log.max.bytes", 16_384);
+    static final int KEEP = CFG.getInt("log.keep", 20);
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private RequestLog() {}
+
+    public static Mode mode() {
+        return MODE;
+    }
+
+    /** Keeps the exchange for a possible failure dump and logs it now if the policy says so. */
+    public static void record(ScenarioContext ctx, Exchange exchange, Consumer<String> sink) {
+        if (MODE == Mode.OFF) {
+            return;
+        }
+        ctx.keepExchange(exchange);
+        boolean now = MODE == Mode.FULL
+                || (MODE == Mode.SAMPLED && SEQUENCE.getAndIncrement() % SAMPLE_EVERY == 0);
+        if (now) {
+            write(exchange, sink);
+        }
+    }
+
+    /** Logs the scenario's kept exchanges that were not written yet; called when it failed. */
+    public static void flushFailed(ScenarioContext ctx, Consumer<String> sink) {
+        if (MODE == Mode.OFF) {
+            return;
+        }
+        for (Exchange exchange : ctx.keptExchanges()) {
+            if (!exchange.logged) {
+                write(exchange, sink);
+            }
+        }
+    }
+
+    private static void write(Exchange exchange, Consumer<String> sink) {
+        exchange.logged = true;
+        sink.accept("📤 Request: " + exchange.method + " " + exchange.endpoint);
+        if (exchange.payload != null && !exchange.payload.trim().isEmpty()) {
+            sink.accept("📦 Payload:\n" + cap(exchange.payload));
+        }
+        if (exchange.response != null) {
+            sink.accept("📥 Response Status: " + exchange.response.getStatusCode());
+            sink.accept("📄 Response Body:" + (exchange.streamed ? " (streamed, not captured)" : "\n" + body(exchange.response)));
+        }
+    }
+
+    private static String body(Response response) {
+        byte[] bytes = response.asByteArray();
+        if (MAX_BYTES > 0 && bytes.length > MAX_BYTES) {
+            return new String(bytes, 0, MAX_BYTES, StandardCharsets.UTF_8)
+                    + "\n… (" + (bytes.length - MAX_BYTES) + " more bytes not shown)";
+        }
+        return response.getBody().asPrettyString();
+    }
+
+    private static String cap(String text) {
+        if (MAX_BYTES > 0 && text.length() > MAX_BYTES) {
+            return text.substring(0, MAX_BYTES) + "\n… (" + (text.length() - MAX_BYTES) + " more chars not shown)";
+        }
+        return text;
+    }
+
+    private static Mode parseMode(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.equals("failures-only") || v.equals("failures_only")) {
+            return Mode.FAILURES;
+        }
+        try {
+            return Mode.valueOf(v.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("log.mode must be off, failures, sampled or full: " + value, e);
+        }
+    }
+}
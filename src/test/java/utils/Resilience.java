@@ -0,0 +1,313 @@
+package utils;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry and circuit-breaker policy shared by {@link AuthRetryFilter} and {@link AsyncHttpEngine},
+ * keyed by endpoint template ({@code GET /books/{id}}).
+ *
+ * <ul>
+ *   <li><b>Retries</b>: up to {@code retry.max.attempts} extra attempts after 429, 502/503/504,
+ *   connection failures and, for idempotent methods, any 5xx or I/O error. Waits are exponential
+ *   with full jitter ({@code retry.backoff.ms} doubling up to {@code retry.backoff.max.ms}); a
+ *   {@code Retry-After} header on 429/503 is honoured up to {@code retry.after.max.ms}.</li>
+ *   <li><b>Retry budget</b>: each request earns {@code retry.budget.percent}% of a retry, plus
+ *   {@code retry.budget.min.per.second} retries per second, so retries can never multiply the
+ *   load on an endpoint that is down.</li>
+ *   <li><b>Circuit breaker</b>: once {@code breaker.failure.percent}% of the last
+ *   {@code breaker.window} attempts failed (at least {@code breaker.min.calls}), calls fail fast
+ *   with {@link CircuitOpenException} for {@code breaker.open.ms}; then a single probe decides
+ *   whether to close again.</li>
+ * </ul>
+ */
+public final class Resilience {
+
+    /** Thrown instead of sending when the endpoint's circuit is open. */
+    public static final class CircuitOpenException extends IllegalStateException {
+        CircuitOpenException(String endpoint) {
+            super("Circuit open for " + endpoint + " — failing fast instead of sending");
+        }
+    }
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Counters of one endpoint, for the end-of-run report. */
+    public record EndpointStats(State state, long retries, long rateLimited, long budgetExhausted,
+                                long shortCircuited, long opened) {}
+
+    private static final Set<String> IDEMPOTENT = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final Resilience SHARED = new Resilience(ConfigReader.defaults());
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long backoffMaxMillis;
+    private final long retryAfterMaxMillis;
+    private final double budgetRatio;
+    private final double budgetMinPerSecond;
+    private final boolean breakerEnabled;
+    private final int window;
+    private final int minCalls;
+    private final double failureRatio;
+    private final long openMillis;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public Resilience(ConfigReader cfg) {
+        this.maxAttempts = cfg.getInt("retry.max.attempts", 2);
+        this.backoffMillis = cfg.getLong("retry.backoff.ms", 100);
+        this.backoffMaxMillis = cfg.getLong("retry.backoff.max.ms", 5_000);
+        this.retryAfterMaxMillis = cfg.getLong("retry.after.max.ms", 30_000);
+        this.budgetRatio = cfg.getDouble("retry.budget.percent", 20) / 100;
+        this.budgetMinPerSecond = cfg.getDouble("retry.budget.min.per.second", 5);
+        this.breakerEnabled = cfg.getBoolean("breaker.enabled", true);
+        this.window = Math.max(1, cfg.getInt("breaker.window", 20));
+        this.minCalls = Math.min(window, cfg.getInt("breaker.min.calls", 10));
+        this.failureRatio = cfg.getDouble("breaker.failure.percent", 50) / 100;
+        this.openMillis = cfg.getLong("breaker.open.ms", 5_000);
+    }
+
+    public static Resilience shared() {
+        return SHARED;
+    }
+
+    /**
+     * Called before each attempt; the first attempt of a request also earns retry budget.
+     *
+     * @throws CircuitOpenException if the endpoint's circuit is open
+     */
+    public void beforeAttempt(String endpoint, boolean firstAttempt) {
+        Endpoint e = endpoint(endpoint);
+        if (firstAttempt) {
+            e.budget.deposit();
+        }
+        if (breakerEnabled && !e.breaker.allow()) {
+            e.shortCircuited.increment();
+            throw new CircuitOpenException(endpoint);
+        }
+    }
+
+    /**
+     * Records the outcome of an attempt and decides whether to retry.
+     *
+     * @param status     HTTP status, or -1 when {@code error} is set
+     * @param retryAfter value of the {@code Retry-After} header, may be null
+     * @param error      transport failure, null if a response arrived
+     * @param attempt    0 for the first attempt
+     * @return how long to wait before the next attempt, or null to stop
+     */
+    public Duration onOutcome(String endpoint, String method, int status, String retryAfter, Throwable error,
+                              int attempt) {
+        Endpoint e = endpoint(endpoint);
+        boolean failed = error != null || status >= 500 || status == 429;
+        if (breakerEnabled) {
+            e.breaker.record(!failed, endpoint);
+        }
+        if (!failed || attempt >= maxAttempts || !retryable(method, status, error)) {
+            return null;
+        }
+        if (!e.budget.tryWithdraw()) {
+            e.budgetExhausted.increment();
+            return null;
+        }
+        e.retries.increment();
+        if (status == 429) {
+            e.rateLimited.increment();
+        }
+        Long serverWait = (status == 429 || status == 503) ? parseRetryAfter(retryAfter) : null;
+        if (serverWait != null) {
+            return Duration.ofMillis(Math.min(serverWait, retryAfterMaxMillis));
+        }
+        long cap = Math.min(backoffMaxMillis, backoffMillis << Math.min(attempt, 20));
+        return Duration.ofMillis(cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    /** Per-endpoint counters and breaker state, sorted by endpoint. */
+    public Map<String, EndpointStats> stats() {
+        Map<String, EndpointStats> out = new TreeMap<>();
+        endpoints.forEach((key, e) -> out.put(key, new EndpointStats(e.breaker.state(), e.retries.sum(),
+                e.rateLimited.sum(), e.budgetExhausted.sum(), e.shortCircuited.sum(), e.breaker.opened.sum())));
+        return out;
+    }
+
+    /** Fixed-width table of {@link #stats()}; only endpoints where something happened are listed. */
+    public String formatTable() {
+        StringBuilder sb = new StringBuilder(String.format("%-40s %-9s %8s %8s %9s %9s %7s%n",
+                "endpoint", "breaker", "retries", "429", "no-budget", "fast-fail", "opened"));
+        stats().forEach((key, s) -> {
+            if (s.retries() + s.budgetExhausted() + s.shortCircuited() + s.opened() > 0 || s.state() != State.CLOSED) {
+                sb.append(String.format("%-40s %-9s %8d %8d %9d %9d %7d%n", key, s.state(), s.retries(),
+                        s.rateLimited(), s.budgetExhausted(), s.shortCircuited(), s.opened()));
+            }
+        });
+        return sb.toString().stripTrailing();
+    }
+
+    public long totalRetries() {
+        return endpoints.values().stream().mapToLong(e -> e.retries.sum()).sum();
+    }
+
+    public boolean anyActivity() {
+        return stats().values().stream().anyMatch(s ->
+                s.retries() + s.budgetExhausted() + s.shortCircuited() + s.opened() > 0);
+    }
+
+    private boolean retryable(String method, int status, Throwable error) {
+        if (status == 429 || status == 502 || status == 503 || status == 504) {
+            return true;
+        }
+        boolean idempotent = IDEMPOTENT.contains(method.toUpperCase(Locale.ROOT));
+        if (error != null) {
+            // A refused connection never reached the server, so even a POST is safe to repeat
+            return idempotent || rootCause(error) instanceof ConnectException;
+        }
+        return idempotent && status >= 500;
+    }
+
+    private Endpoint endpoint(String key) {
+        return endpoints.computeIfAbsent(key, k -> new Endpoint());
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        while (t.getCause() != null && t.getCause() != t) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /** Retry-After as delay-seconds or an HTTP-date; null if absent or unparseable. */
+    static Long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim())) * 1000;
+        } catch (NumberFormatException ignored) {
+            // not delay-seconds, try HTTP-date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private final class Endpoint {
+        final RetryBudget budget = new RetryBudget();
+        final Breaker breaker = new Breaker();
+        final LongAdder retries = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder budgetExhausted = new LongAdder();
+        final LongAdder shortCircuited = new LongAdder();
+    }
+
+    /**
+     * Token bucket: requests deposit a fraction of a retry, time adds a minimum rate. It starts with
+     * one second's worth, not full, so an endpoint that fails from its first call can't retry a
+     * burst of up to {@code cap} before the ratio applies.
+     */
+    private final class RetryBudget {
+        private final double cap = Math.max(10, budgetMinPerSecond * 10);
+        private double tokens = budgetMinPerSecond;
+        private long refilledAt = System.nanoTime();
+
+        synchronized void deposit() {
+            tokens = Math.min(cap, tokens + budgetRatio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            long now = System.nanoTime();
+            tokens = Math.min(cap, tokens + (now - refilledAt) / 1e9 * budgetMinPerSecond);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** Failure-ratio breaker over the last {@code window} attempts, with a single half-open probe. */
+    private final class Breaker {
+        private final boolean[] outcomes = new boolean[window];
+        private int next;
+        private int calls;
+        private int failures;
+        private State state = State.CLOSED;
+        private long openedAt;
+        private boolean probing;
+        final LongAdder opened = new LongAdder();
+
+        synchronized State state() {
+            return state;
+        }
+
+        synchronized boolean allow() {
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+                state = State.HALF_OPEN;
+                probing = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probing) {
+                    return false;
+                }
+                probing = true;
+                return true;
+            }
+            return state == State.CLOSED;
+        }
+
+        synchronized void record(boolean success, String endpoint) {
+            if (state == State.HALF_OPEN) {
+                probing = false;
+                if (success) {
+                    reset();
+                    state = State.CLOSED;
+                    System.out.println("[Retry] Circuit CLOSED for " + endpoint + " (probe succeeded)");
+                } else {
+                    open(endpoint, "probe failed");
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                return;
+            }
+            if (calls == window) {
+                failures -= outcomes[next] ? 0 : 1;
+            } else {
+                calls++;
+            }
+            outcomes[next] = success;
+            failures += success ? 0 : 1;
+            next = (next + 1) % window;
+            if (calls >= minCalls && failures >= failureRatio * calls) {
+                open(endpoint, failures + "/" + calls + " recent attempts failed");
+            }
+        }
+
+        private void open(String endpoint, String reason) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            opened.increment();
+            reset();
+            System.out.println("[Retry] Circuit OPEN for " + endpoint + " (" + reason + "), retry in "
+                    + openMillis + " ms");
+        }
+
+        private void reset() {
+            calls = 0;
+            failures = 0;
+            next = 0;
+        }
+    }
+}
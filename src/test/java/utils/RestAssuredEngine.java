@@ -0,0 +1,60 @@
+package utils;
+
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default engine: the scenario's RestAssured spec with {@link AuthRetryFilter} and {@link TimingFilter}.
+ * RestAssured is blocking: {@link #send} runs on the caller thread, and {@link #sendAsync} parks one
+ * worker thread per in-flight request ({@code engine.restassured.threads}), which is what caps its
+ * concurrency compared with {@link AsyncHttpEngine}.
+ */
+public class RestAssuredEngine implements RequestEngine {
+
+    private static final AtomicInteger IDS = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            ConfigReader.defaults().getInt("engine.restassured.threads", 32), r -> {
+                Thread t = new Thread(r, "restassured-engine-" + IDS.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    private final ScenarioContext context;
+
+    public RestAssuredEngine(ScenarioContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public Response send(String method, String endpoint, String body, Map<String, String> headers) {
+        return execute(method, endpoint, body, headers);
+    }
+
+    @Override
+    public CompletableFuture<Response> sendAsync(String method, String endpoint, String body, Map<String, String> headers) {
+        // Resolve the identity on the caller thread; the worker authenticates as it, not as its own pin
+        TokenManager.Session session = TokenManager.currentSession();
+        return CompletableFuture.supplyAsync(
+                () -> TokenManager.callAs(session, () -> execute(method, endpoint, body, headers)), WORKERS);
+    }
+
+    private Response execute(String method, String endpoint, String body, Map<String, String> headers) {
+        RequestSpecification request = context.request().headers(headers);
+        if (body != null && !body.trim().isEmpty()) {
+            request.body(body);
+        }
+        return switch (method.toUpperCase()) {
+            case "GET" -> request.get(endpoint);
+            case "POST" -> request.post(endpoint);
+            case "PUT" -> request.put(endpoint);
+            case "DELETE" -> request.delete(endpoint);
+            default -> throw new IllegalArgumentException("Unsupported method: " + method);
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package utils;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import perf.ResponseTime;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Per-scenario state (request spec, last response) bound to the thread running the scenario.
+ * Cucumber executes each scenario on a single worker thread, so parallel runs never share
+ * a context; {@code Hooks} opens it before the scenario and closes it afterwards.
+ */
+public final class ScenarioContext {
+
+    private static final ThreadLocal<ScenarioContext> CURRENT = new ThreadLocal<>();
+
+    private final String scenarioName;
+    private final String scenarioId;
+    private final RequestSpecification spec;
+    private final RequestEngine engine;
+    private final HttpCacheFilter httpCache = new HttpCacheFilter();
+    private Response response;
+    private ResponseTime responseTime;
+    private String lastEndpoint;
+    private Map<Integer, Long> statusCounts = Map.of();
+    private final Deque<RequestLog.Exchange> exchanges = new ArrayDeque<>();
+    private boolean verbose = true;
+
+    private ScenarioContext(String scenarioName, String scenarioId) {
+        this.scenarioName = scenarioName;
+        this.scenarioId = scenarioId;
+        this.spec = new RequestSpecBuilder()
+                .setBaseUri(ConfigReader.defaults().baseUri())
+                .setConfig(HttpClients.restAssuredConfig())
+                .addFilter(httpCache)
+                .addFilter(new AuthRetryFilter())
+                .addFilter(new TimingFilter())
+                .build();
+        this.engine = RequestEngine.forScenario(this);
+    }
+
+    /** Starts a fresh context for the scenario about to run on this thread. */
+    public static ScenarioContext begin(String scenarioName) {
+        return begin(scenarioName, scenarioName);
+    }
+
+    /** As {@link #begin(String)}, with a stable id (e.g. {@code uri:line}) that tells same-named scenarios apart. */
+    public static ScenarioContext begin(String scenarioName, String scenarioId) {
+        ScenarioContext ctx = new ScenarioContext(scenarioName, scenarioId);
+        CURRENT.set(ctx);
+        return ctx;
+    }
+
+    /** Returns this thread's context, creating one if no hook opened it (e.g. direct IDE runs). */
+    public static ScenarioContext current() {
+        ScenarioContext ctx = CURRENT.get();
+        return ctx != null ? ctx : begin("unnamed");
+    }
+
+    /** This thread's context, or null if none was opened. */
+    static ScenarioContext peek() {
+        return CURRENT.get();
+    }
+
+    /** Drops this thread's context so pooled worker threads don't leak state into the next scenario. */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** A new request pre-configured with the base URI and auth filter of this scenario. */
+    public RequestSpecification request() {
+        return given().spec(spec);
+    }
+
+    /** Engine selected for this run ({@code -Drequest.engine}), used by {@code sendRequest}. */
+    public RequestEngine engine() {
+        return engine;
+    }
+
+    /** Client-side HTTP cache on this scenario's RestAssured requests. */
+    public HttpCacheFilter httpCache() {
+        return httpCache;
+    }
+
+    public String getScenarioName() { return scenarioName; }
+    public String getScenarioId() { return scenarioId; }
+
+    /** Per-request logging; load virtual users switch it off so the report isn't flooded. */
+    public boolean isVerbose() { return verbose; }
+    public void setVerbose(boolean verbose) { this.verbose = verbose; }
+
+    public Response getResponse() { return response; }
+    public void setResponse(Response response) { this.response = response; }
+
+    /** Time of the last request sent through {@code sendRequest}, with its phases where known. */
+    public ResponseTime getResponseTime() { return responseTime; }
+    public void setResponseTime(ResponseTime responseTime) { this.responseTime = responseTime; }
+
+    /** "METHOD /path" of the last request sent through {@code sendRequest}. */
+    public String getLastEndpoint() { return lastEndpoint; }
+    public void setLastEndpoint(String lastEndpoint) { this.lastEndpoint = lastEndpoint; }
+
+    /** Status code histogram of the last fan-out step (-1 for transport failures). */
+    public Map<Integer, Long> getStatusCounts() { return statusCounts; }
+    public void setStatusCounts(Map<Integer, Long> statusCounts) { this.statusCounts = statusCounts; }
+
+    /** Keeps the most recent exchanges ({@code log.keep}) for the failure dump. */
+    void keepExchange(RequestLog.Exchange exchange) {
+        if (exchanges.size() >= RequestLog.KEEP) {
+            exchanges.removeFirst();
+        }
+        exchanges.addLast(exchange);
+    }
+
+    List<RequestLog.Exchange> keptExchanges() { return List.copyOf(exchanges); }
+}
@@ -0,0 +1,107 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Every {@code testData/*.json} payload, read from the classpath once, checked to be valid JSON and
+ * kept in compact form ready to send. Steps look payloads up by file name instead of hitting the
+ * disk on each call.
+ */
+public final class TestPayloads {
+
+    private static final String DIR = "testData";
+
+    /** One payload and its compact JSON text. */
+    public record Payload(String name, String text) {}
+
+    private static volatile Map<String, Payload> payloads;
+
+    private TestPayloads() {}
+
+    /** Loads all payloads now; called from {@code Hooks.beforeAll} so a broken file fails fast. */
+    public static int preload() {
+        return all().size();
+    }
+
+    public static Payload get(String fileName) {
+        Payload payload = all().get(fileName);
+        if (payload == null) {
+            throw new IllegalArgumentException("No test payload '" + fileName + "' in classpath:" + DIR
+                    + "/ (have " + all().keySet() + ")");
+        }
+        return payload;
+    }
+
+    public static String text(String fileName) {
+        return get(fileName).text();
+    }
+
+    private static Map<String, Payload> all() {
+        Map<String, Payload> all = payloads;
+        if (all == null) {
+            synchronized (TestPayloads.class) {
+                all = payloads;
+                if (all == null) {
+                    all = load();
+                    payloads = all;
+                }
+            }
+        }
+        return all;
+    }
+
+    private static Map<String, Payload> load() {
+        URL url = TestPayloads.class.getClassLoader().getResource(DIR);
+        if (url == null) {
+            throw new IllegalStateException("classpath:" + DIR + "/ not found");
+        }
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                try (FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap())) {
+                    return read(fs.getPath(DIR));
+                }
+            }
+            return read(Path.of(uri));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load test payloads from " + url, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Bad payload location " + url, e);
+        }
+    }
+
+    private static Map<String, Payload> read(Path dir) throws IOException {
+        Map<String, Payload> loaded = new TreeMap<>();
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(".json")).toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            JsonNode tree;
+            try (InputStream in = Files.newInputStream(file)) {
+                tree = Json.MAPPER.readTree(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Test payload " + name + " is not valid JSON: " + e.getMessage(), e);
+            }
+            loaded.put(name, new Payload(name, Json.WRITER.writeValueAsString(tree)));
+        }
+        return Collections.unmodifiableMap(loaded);
+    }
+}
@@ -0,0 +1,165 @@
+package utils;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.http.impl.client.AbstractHttpClient;
+import perf.Endpoints;
+import perf.LiveMetrics;
+import perf.RequestTimings;
+import perf.ResponseTime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+/**
+ * Records per-endpoint latency into {@link RequestTimings} and {@link LiveMetrics}. Registered after
+ * {@link AuthRetryFilter} so each HTTP attempt (including a 401 retry) is timed on its own, without
+ * token fetches.
+ *
+ * <p>Time-to-first-byte comes from an HttpClient response interceptor, which fires once the
+ * status line and headers are in but before RestAssured reads the body; a request interceptor marks
+ * the request going out, and the pool's socket factory reports how long opening a new connection
+ * took (nothing when a pooled one is reused). {@link HttpClients} installs all three on the shared
+ * client. The phases of the latest attempt on this thread are available from {@link #last()}.
+ *
+ * <p>Bodies are buffered before recording, so "total" covers the transfer and the connection goes
+ * back to the pool. Requests sent inside {@link #streaming} keep a 2xx body on the wire instead; the
+ * caller reads it as a stream and {@link #finishStream()} records the timing once it is consumed.
+ */
+public class TimingFilter implements Filter {
+
+    // Interceptors and filter run on the same thread for a given request.
+    private static final ThreadLocal<Long> CONNECT_NANOS = new ThreadLocal<>();
+    private static final ThreadLocal<Long> REQUEST_SENT = new ThreadLocal<>();
+    private static final ThreadLocal<Long> HEADERS_RECEIVED = new ThreadLocal<>();
+    private static final ThreadLocal<ResponseTime> LAST = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> STREAMING = new ThreadLocal<>();
+    private static final ThreadLocal<PendingStream> PENDING = new ThreadLocal<>();
+
+    /** A streamed response whose timing is recorded when its body has been read. */
+    private record PendingStream(Response response, Runnable record) {}
+
+    /** Makes the client stamp the moments the request goes out and the response headers arrive. */
+    @SuppressWarnings("deprecation")
+    static void install(AbstractHttpClient client) {
+        client.addRequestInterceptor((request, context) -> REQUEST_SENT.set(System.nanoTime()));
+        client.addResponseInterceptor((response, context) -> HEADERS_RECEIVED.set(System.nanoTime()));
+    }
+
+    /** Called by the pool's socket factory with the time it took to open a connection for this request. */
+    static void connected(long nanos) {
+        CONNECT_NANOS.set(nanos);
+    }
+
+    /** Phases of the latest request timed on this thread, or null if none since {@link #clearLast()}. */
+    public static ResponseTime last() {
+        return LAST.get();
+    }
+
+    public static void clearLast() {
+        LAST.remove();
+    }
+
+    /**
+     * Sends {@code request} without buffering a successful response body, so it can be read with
+     * {@code asInputStream()} in constant memory. Call {@link #finishStream()} when done reading.
+     */
+    public static <T> T streaming(Supplier<T> request) {
+        STREAMING.set(true);
+        try {
+            return request.get();
+        } finally {
+            STREAMING.remove();
+        }
+    }
+
+    /** True while {@link #streaming} is sending on this thread. */
+    static boolean isStreaming() {
+        return Boolean.TRUE.equals(STREAMING.get());
+    }
+
+    /** True if {@code response} is this thread's streamed response and its body hasn't been finished. */
+    public static boolean isStreamed(Response response) {
+        PendingStream pending = PENDING.get();
+        return pending != null && pending.response() == response;
+    }
+
+    /**
+     * Closes the streamed response of this thread, which drains what's left so the connection can
+     * be reused, and records its timing with the transfer ending now. Does nothing if none is open.
+     */
+    public static void finishStream() {
+        PendingStream pending = PENDING.get();
+        PENDING.remove();
+        if (pending == null) {
+            return;
+        }
+        try (InputStream ignored = pending.response().asInputStream()) {
+            // closing is all that's needed
+        } catch (IOException | RuntimeException ignored) {
+            // Already closed by the reader
+        }
+        pending.record().run();
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification req,
+                           FilterableResponseSpecification res,
+                           FilterContext ctx) {
+        String endpoint = Endpoints.template(req.getMethod(), req.getUserDefinedPath());
+        CONNECT_NANOS.remove();
+        REQUEST_SENT.remove();
+        HEADERS_RECEIVED.remove();
+        LiveMetrics.requestStarted();
+        long start = System.nanoTime();
+        try {
+            Response response = ctx.next(req, res);
+            int status = response.getStatusCode();
+            if (isStreaming() && status >= 200 && status < 300) {
+                finishStream(); // an earlier stream nobody finished
+                Runnable record = recorder(endpoint, start, status);
+                PENDING.set(new PendingStream(response, record));
+                return response;
+            }
+            // RestAssured reads the body lazily; buffer it now so "total" includes the transfer
+            // and the pooled connection is released even if the caller never reads the body
+            response.asByteArray();
+            record(endpoint, start, status);
+            return response;
+        } catch (RuntimeException e) {
+            record(endpoint, start, -1);
+            throw e;
+        }
+    }
+
+    private static void record(String endpoint, long start, int status) {
+        recorder(endpoint, start, status).run();
+    }
+
+    /** Takes this attempt's stamps now; the returned task records them with the end time it runs at. */
+    private static Runnable recorder(String endpoint, long start, int status) {
+        Long connect = CONNECT_NANOS.get();
+        Long sent = REQUEST_SENT.get();
+        Long headers = HEADERS_RECEIVED.get();
+        CONNECT_NANOS.remove();
+        REQUEST_SENT.remove();
+        HEADERS_RECEIVED.remove();
+        return () -> record(endpoint, start, status, connect, sent, headers, System.nanoTime());
+    }
+
+    private static void record(String endpoint, long start, int status, Long connect, Long sent, Long headers,
+                               long end) {
+        // Once the request went out, no connect time means a reused pooled connection
+        LAST.set(new ResponseTime(end - start,
+                connect != null ? connect : sent != null ? 0 : ResponseTime.UNKNOWN,
+                sent != null && headers != null ? headers - sent : ResponseTime.UNKNOWN,
+                headers != null ? end - headers : ResponseTime.UNKNOWN));
+        boolean error = status < 0 || status >= 500;
+        RequestTimings.record(endpoint, end - start, headers != null ? headers - start : -1, error);
+        LiveMetrics.requestFinished(endpoint, status, end - start);
+    }
+}
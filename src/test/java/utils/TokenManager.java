@@ -6,101 +6,341 @@ import io.restassured.response.Response;
 import pojo.LoginRequest;
 import pojo.LoginResponse;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
+/**
+ * JWT cache for a pool of identities (see {@link IdentityPool}). Each thread is pinned to one
+ * identity on first use, round-robin, so concurrent workers and load users authenticate as
+ * different users; with the default pool size of 1 everyone shares the configured user.
+ */
 public final class TokenManager {
 
-    private static final AtomicReference<String> TOKEN = new AtomicReference<>(null);
-    private static volatile long expiryEpochSeconds = 0L;
+    /** Token, proactive-refresh time and expiry published together as one snapshot. */
+    private record CachedToken(String value, long refreshAtMillis, long expiryMillis) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiryMillis;
+        }
+
+        boolean isStale() {
+            return System.currentTimeMillis() >= refreshAtMillis;
+        }
+    }
+
+    /** Snapshot of the auth counters for reporting. */
+    public record Stats(int identities, long refreshes, long failedRefreshes, long coalescedWaits,
+                        long unauthorizedRetries) {
+        @Override
+        public String toString() {
+            return "identities=" + identities + ", refreshes=" + refreshes + ", failed=" + failedRefreshes
+                    + ", coalesced=" + coalescedWaits + ", 401 retries=" + unauthorizedRetries;
+        }
+    }
+
+    private static final ScheduledExecutorService REFRESHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "token-refresher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final LongAdder REFRESHES = new LongAdder();
+    private static final LongAdder FAILED_REFRESHES = new LongAdder();
+    private static final LongAdder COALESCED = new LongAdder();
+    private static final LongAdder UNAUTHORIZED_RETRIES = new LongAdder();
 
     // Load from config.properties (path can be adjusted if needed)
-    private static final ConfigReader CFG = new ConfigReader("src/test/resources/config.properties");
-    private static final String BASE_URI = CFG.get("base_uri");
+    private static final ConfigReader CFG = ConfigReader.defaults();
+    private static final String BASE_URI = CFG.baseUri();
     // default to /login (your steps use /login). Override via -Dapi.login.path=/auth/login if needed
     private static final String LOGIN_PATH = System.getProperty("api.login.path", "/login");
+    // Renew in the background once this fraction of expires_in has elapsed
+    private static final double REFRESH_FRACTION = CFG.getDouble("auth.refresh.fraction", 0.8);
+    private static final long RETRY_AFTER_FAILURE_MILLIS = 5_000;
 
-    private static final String EMAIL = CFG.get("email");
-    private static final String PASSWORD = CFG.get("password");
-    private static final String ID_STR = CFG.get("id");
+    private static volatile List<Session> sessions;
+    private static final AtomicInteger NEXT_SESSION = new AtomicInteger();
+    private static final ThreadLocal<Session> THREAD_SESSION = new ThreadLocal<>();
 
     private TokenManager() {}
 
-    /** Get a valid token, refreshing if needed (thread-safe). */
+    /**
+     * Get a valid token for this thread's identity. Never blocks while the cached token is still
+     * valid: a stale-but-valid token is returned immediately and a background refresh is kicked
+     * off. Only callers with no usable token wait, and they all share one in-flight login.
+     */
     public static String getToken() {
-        String tk = TOKEN.get();
-        if (tk == null || isExpired()) {
-            synchronized (TokenManager.class) {
-                tk = TOKEN.get();
-                if (tk == null || isExpired()) {
-                    refreshToken();
-                }
-            }
-        }
-        return TOKEN.get();
+        return session().getToken();
     }
 
-    /** Force-refresh the token (used after a 401). */
+    /** Force-refresh this thread's token, joining a login that is already in flight. */
     public static void forceRefresh() {
-        synchronized (TokenManager.class) {
-            refreshToken();
+        Session s = session();
+        await(s.refresh(false, s.token.get()));
+    }
+
+    /**
+     * Refresh after {@code rejectedToken} got a 401. If another thread already replaced that token,
+     * nothing is done, so a burst of 401s on the same token causes a single login.
+     */
+    public static void forceRefresh(String rejectedToken) {
+        session().forceRefresh(rejectedToken);
+    }
+
+    /** The session of the identity this thread is pinned to. */
+    public static Session currentSession() {
+        return session();
+    }
+
+    /**
+     * Runs {@code work} on this thread as {@code session}'s identity, for worker threads that send
+     * requests on behalf of another thread (see {@link RestAssuredEngine#sendAsync}).
+     */
+    static <T> T callAs(Session session, Supplier<T> work) {
+        Session previous = THREAD_SESSION.get();
+        THREAD_SESSION.set(session);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                THREAD_SESSION.remove();
+            } else {
+                THREAD_SESSION.set(previous);
+            }
         }
     }
 
-    /** Warm up at suite start, but don’t fail the whole run if login is misconfigured. */
+    /** Email of the identity this thread authenticates as. */
+    public static String currentIdentity() {
+        return session().identity.getEmail();
+    }
+
+    /** Called by {@link AuthRetryFilter} each time it replays a request after a 401. */
+    static void recordUnauthorizedRetry() {
+        UNAUTHORIZED_RETRIES.increment();
+    }
+
+    public static Stats stats() {
+        List<Session> all = sessions;
+        return new Stats(all == null ? 0 : all.size(),
+                REFRESHES.sum(), FAILED_REFRESHES.sum(), COALESCED.sum(), UNAUTHORIZED_RETRIES.sum());
+    }
+
+    /**
+     * Warm up at suite start: logs every pool identity in, in parallel, but doesn’t fail the whole
+     * run if login is misconfigured.
+     */
     public static void prewarm() {
+        List<Session> all;
         try {
-            getToken();
+            all = sessions();
         } catch (Throwable t) {
             System.out.println("[Auth] Prewarm failed: " + t.getMessage() + " (will retry on first request)");
+            return;
+        }
+        int threads = Math.min(all.size(), CFG.getInt("auth.prewarm.threads", 16));
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<CompletableFuture<Void>> logins = new ArrayList<>();
+            for (Session s : all) {
+                logins.add(CompletableFuture.runAsync(s::getToken, pool));
+            }
+            int failed = 0;
+            for (CompletableFuture<Void> login : logins) {
+                try {
+                    login.join();
+                } catch (CompletionException e) {
+                    failed++;
+                    System.out.println("[Auth] Prewarm failed: " + e.getCause().getMessage()
+                            + " (will retry on first request)");
+                }
+            }
+            System.out.println("[Auth] Prewarmed " + (all.size() - failed) + "/" + all.size() + " identities");
+        } finally {
+            pool.shutdown();
         }
     }
 
-    private static boolean isExpired() {
-        return Instant.now().getEpochSecond() >= expiryEpochSeconds;
+    private static Session session() {
+        Session s = THREAD_SESSION.get();
+        if (s == null) {
+            List<Session> all = sessions();
+            s = all.get(Math.floorMod(NEXT_SESSION.getAndIncrement(), all.size()));
+            THREAD_SESSION.set(s);
+        }
+        return s;
+    }
+
+    private static List<Session> sessions() {
+        List<Session> all = sessions;
+        if (all == null) {
+            synchronized (TokenManager.class) {
+                all = sessions;
+                if (all == null) {
+                    all = IdentityPool.load(CFG).stream().map(Session::new).toList();
+                    sessions = all;
+                }
+            }
+        }
+        return all;
     }
 
-    private static void refreshToken() {
-        // Build login payload from your POJO
-        LoginRequest req = new LoginRequest();
+    private static CachedToken await(CompletableFuture<CachedToken> future) {
         try {
-            if (ID_STR != null && !ID_STR.isBlank()) {
-                req.setId(Integer.parseInt(ID_STR.trim()));
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
             }
-        } catch (NumberFormatException ignored) {}
-        req.setEmail(EMAIL);
-        req.setPassword(PASSWORD);
-
-        System.out.println("[Auth] POST " + BASE_URI + LOGIN_PATH);
-
-        Response r = RestAssured.given()
-                .baseUri(BASE_URI)
-                .contentType(ContentType.JSON)
-                .body(req)
-                .when()
-                .post(LOGIN_PATH);
-
-        int code = r.getStatusCode();
-        if (code != 200) {
-            throw new IllegalStateException("Login failed: HTTP " + code + " — check base_uri/login path/credentials");
+            throw e;
+        }
+    }
+
+    /**
+     * Token state of one identity. Async callers capture it with {@link #currentSession()} so a
+     * completion running on another thread still refreshes the identity that sent the request.
+     */
+    public static final class Session {
+        private final LoginRequest identity;
+        private final AtomicReference<CachedToken> token = new AtomicReference<>(null);
+        // Single-flight: at most one login per identity runs at a time; everyone else joins this future.
+        private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>(null);
+        private final AtomicReference<ScheduledFuture<?>> nextRefresh = new AtomicReference<>(null);
+
+        private Session(LoginRequest identity) {
+            this.identity = identity;
         }
 
-        LoginResponse resp = r.then().extract().as(LoginResponse.class);
+        public String getToken() {
+            CachedToken tk = token.get();
+            if (tk != null && !tk.isExpired()) {
+                if (tk.isStale()) {
+                    refresh(true, tk);
+                }
+                return tk.value();
+            }
+            return await(refresh(false, tk)).value();
+        }
 
-        // Adjust these to match your LoginResponse getters
-        String token = resp.getAccess_token();
-        Integer expiresIn = null;
-        try {
-            expiresIn = resp.getExpiresIn();
-        } catch (Exception ignored) { /* not provided */ }
+        /** Refreshes unless {@code rejectedToken} was already replaced; returns the token to retry with. */
+        public String forceRefresh(String rejectedToken) {
+            CachedToken tk = token.get();
+            if (tk != null && !tk.value().equals(rejectedToken) && !tk.isExpired()) {
+                COALESCED.increment();
+                return tk.value();
+            }
+            return await(refresh(false, tk)).value();
+        }
+
+        /**
+         * Starts a login unless one is already running, in which case the caller joins it. A caller
+         * can get here just after the previous login finished and cleared {@code inFlight}; if a
+         * fresh token replaced the one it saw, that token is used instead of logging in again.
+         *
+         * @param background run the login on the refresher thread instead of the caller's
+         * @param seen       the token snapshot the caller decided to replace (null if none)
+         */
+        CompletableFuture<CachedToken> refresh(boolean background, CachedToken seen) {
+            while (true) {
+                CompletableFuture<CachedToken> existing = inFlight.get();
+                if (existing != null) {
+                    if (!background) {
+                        COALESCED.increment();
+                    }
+                    return existing;
+                }
+                CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+                if (inFlight.compareAndSet(null, mine)) {
+                    CachedToken current = token.get();
+                    if (current != null && current != seen && !current.isStale()) {
+                        COALESCED.increment();
+                        mine.complete(current);
+                        inFlight.compareAndSet(mine, null);
+                        return mine;
+                    }
+                    Runnable login = () -> {
+                        try {
+                            mine.complete(refreshToken());
+                        } catch (Throwable t) {
+                            FAILED_REFRESHES.increment();
+                            mine.completeExceptionally(t);
+                            if (token.get() != null) {
+                                scheduleRefresh(RETRY_AFTER_FAILURE_MILLIS);
+                            }
+                        } finally {
+                            inFlight.compareAndSet(mine, null);
+                        }
+                    };
+                    if (background) {
+                        REFRESHER.execute(login);
+                    } else {
+                        login.run();
+                    }
+                    return mine;
+                }
+            }
+        }
 
-        if (token == null || token.isBlank()) {
-            throw new IllegalStateException("LoginResponse did not contain a token");
+        private void scheduleRefresh(long delayMillis) {
+            ScheduledFuture<?> next = REFRESHER.schedule(() -> { refresh(true, token.get()); }, delayMillis, TimeUnit.MILLISECONDS);
+            ScheduledFuture<?> previous = nextRefresh.getAndSet(next);
+            if (previous != null) {
+                previous.cancel(false);
+            }
         }
 
-        TOKEN.set(token);
-        long ttl = (expiresIn != null && expiresIn > 0) ? expiresIn : (55 * 60); // ~55 min default
-        expiryEpochSeconds = Instant.now().getEpochSecond() + ttl - 15;          // small buffer
-        System.out.println("[Auth] Token refreshed; TTL ~" + ttl + "s");
+        private CachedToken refreshToken() {
+            System.out.println("[Auth] POST " + BASE_URI + LOGIN_PATH + " as " + identity.getEmail());
+
+            Response r = RestAssured.given()
+                    .config(HttpClients.restAssuredConfig())
+                    .baseUri(BASE_URI)
+                    .contentType(ContentType.JSON)
+                    .body(identity)
+                    .when()
+                    .post(LOGIN_PATH);
+
+            int code = r.getStatusCode();
+            if (code != 200) {
+                // Read the body so the pooled connection is released before we give up
+                r.asByteArray();
+                throw new IllegalStateException("Login failed for " + identity.getEmail() + ": HTTP " + code
+                        + " — check base_uri/login path/credentials");
+            }
+
+            LoginResponse resp = r.then().extract().as(LoginResponse.class);
+
+            // Adjust these to match your LoginResponse getters
+            String value = resp.getAccess_token();
+            Integer expiresIn = null;
+            try {
+                expiresIn = resp.getExpiresIn();
+            } catch (Exception ignored) { /* not provided */ }
+
+            if (value == null || value.isBlank()) {
+                throw new IllegalStateException("LoginResponse did not contain a token");
+            }
+
+            long ttl = (expiresIn != null && expiresIn > 0) ? expiresIn : (55 * 60); // ~55 min default
+            long now = System.currentTimeMillis();
+            long refreshIn = (long) (ttl * 1000 * REFRESH_FRACTION);
+            long buffer = Math.min(15_000, ttl * 100); // small buffer, at most 10% of a short TTL
+            CachedToken fresh = new CachedToken(value, now + refreshIn, now + ttl * 1000 - buffer);
+            token.set(fresh);
+            REFRESHES.increment();
+            scheduleRefresh(refreshIn);
+            System.out.println("[Auth] Token refreshed; TTL ~" + ttl + "s, next refresh in ~" + refreshIn / 1000 + "s");
+            return fresh;
+        }
     }
 }
@@ -14,8 +14,20 @@ Feature: Books API
     And the response should contain at least 1 book
     And the first book should have a name and author
 
+  Scenario: Get all books with streaming checks
+    When I send a GET request to books
+    Then the response status should be 200
+    And the streamed response should contain at least 1 books
+    And every streamed book should have "name, author, published_year"
+
+  # The body is read straight off the connection, so only one streamed check per request
+  Scenario: Validate every book while streaming the listing
+    When I send a streaming GET request to books
+    Then the response status should be 200
+    And every streamed book should have "name, author, published_year"
+
   Scenario: Get a book by valid ID
-    When I send a GET request to books with id 12
+    When I send a GET request to a seeded book
     Then the response status should be 200
 
   Scenario: Get a book by invalid ID
@@ -23,13 +35,72 @@ Feature: Books API
     Then the response status should be 404
 
   Scenario: Update a book with valid data
-    When I send a PUT request to books with id 12 using "updateBook.json"
+    When I send a PUT request to a seeded book using "updateBook.json"
     Then the response status should be 200
 
   Scenario: Update a book with missing name
-    When I send a PUT request to books with id 12 using "missingTitleBook.json"
+    When I send a PUT request to a seeded book using "missingTitleBook.json"
     Then the response status should be 400
 
+  Scenario: Delete a book by valid ID
+    When I send a DELETE request to a seeded book
+    Then the response status should be 200
+
   Scenario: Delete a book by invalid ID
     When I send a DELETE request to books with id 999999
-    Then the response status should be 404
\ No newline at end of file
+    Then the response status should be 404
+
+  Scenario: Create books from a CSV dataset
+    When I send POST requests to books for each row of "books.csv" with 4 in flight
+    Then every dataset row should have the expected status
+    And the dataset should have 2 rows with status 400
+
+  Scenario: Update seeded books from an NDJSON dataset
+    When I send PUT requests to books for each row of "bookUpdates.ndjson" with 4 in flight
+    Then every dataset row should have the expected status
+
+  # @sla scenarios are excluded from the default run; execute with -Dcucumber.filter.tags=@sla
+  @sla
+  Scenario: Get all books within the response-time SLA
+    When I send a GET request to books
+    Then the response status should be 200
+    And the response time should be under 1000 ms
+
+  @sla
+  Scenario: Get all books within the p95 latency SLA
+    Then p95 latency of GET books over 50 calls should be under 500 ms
+    And the response status should be 200
+
+  # @cache scenarios are excluded from the default run; execute with -Dcucumber.filter.tags=@cache
+  @cache
+  Scenario: Unchanged book list is answered with 304
+    When I send a GET request to books
+    Then the response status should be 200
+    And the response should carry cache validators
+    When I send the same GET request with its validators
+    Then the response status should be 304
+
+  @cache
+  Scenario: Unchanged book is answered with 304
+    When I send a GET request to a seeded book
+    Then the response should carry cache validators
+    When I send the same GET request with its validators
+    Then the response status should be 304
+
+  @cache
+  Scenario: Repeated reads are served from the HTTP cache
+    Given the HTTP cache is enabled
+    When I send a GET request to books
+    And I send a GET request to books
+    Then the response status should be 200
+    And the response should be served from the HTTP cache
+    And the response should contain at least 1 book
+
+  @cache
+  Scenario: Creating a book invalidates the cached book list
+    Given the HTTP cache is enabled
+    When I send a GET request to books
+    And I send a POST request to books with "RANDOM" and JWT
+    And I send a GET request to books
+    Then the response status should be 200
+    And the response should not be served from the HTTP cache
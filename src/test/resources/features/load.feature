@@ -0,0 +1,27 @@
+@load
+Feature: Bookstore load
+
+  # Excluded from the default run; execute with -Dcucumber.filter.tags=@load
+  Scenario: Mixed read/write load
+    When I run a load of 8 virtual users at 50 requests per second for 30 seconds with:
+      | step                                                 | weight | status |
+      | I send a GET request to books                        | 5      | 200    |
+      | I send a GET request to a seeded book                | 3      | 200    |
+      | I send a POST request to books with "RANDOM" and JWT | 1      | 200    |
+      | I send a GET request to books with id 999999         | 1      | 404    |
+    Then the load error rate should be below 1 percent
+
+
+  # Pair with -Drequest.engine=async to keep every request in flight at once
+  Scenario: Concurrent burst of book listings
+    When I send 1000 concurrent GET requests to books
+    Then all concurrent responses should have status 200
+
+  # Open model: fixed arrival rates, latency measured from the scheduled send time
+  Scenario: Open-model read/write mix
+    When I run an open-model load for 30 seconds ramping up over 10 seconds with:
+      | step                                                 | rate | status |
+      | I send a GET request to a seeded book                | 50   | 200    |
+      | I send a POST request to books with "RANDOM" and JWT | 5    | 200    |
+    Then the load error rate should be below 1 percent
+    And the load p99 latency should be below 2000 ms
@@ -0,0 +1,8 @@
+Feature: Retries and circuit breaker
+
+  Scenario: A 401 on the half-open probe is replayed and closes the circuit
+    Given an endpoint whose circuit was opened by 503 responses
+    When the half-open probe gets a 401 and the replay a 200
+    Then the replayed request should return 200
+    And the endpoint's circuit should be closed
+    And the next request to the endpoint should be sent